@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An in-memory {@link TextTerminal} used by the benchmarks.
+ * It cyclically returns the configured inputs and only counts the characters written to it.
+ */
+public class BenchmarkTerminal implements TextTerminal {
+    private final List<String> inputs;
+    private int inputIndex = -1;
+    private long outputLength;
+
+    /** Creates a terminal that always returns an empty input string. */
+    public BenchmarkTerminal() {
+        this("");
+    }
+
+    public BenchmarkTerminal(String... inputs) {
+        this(Arrays.asList(inputs));
+    }
+
+    public BenchmarkTerminal(List<String> inputs) {
+        if(inputs == null || inputs.isEmpty()) throw new IllegalArgumentException("inputs is empty");
+        this.inputs = inputs;
+    }
+
+    @Override
+    public String read(boolean masking) {
+        inputIndex = (inputIndex + 1) % inputs.size();
+        return inputs.get(inputIndex);
+    }
+
+    @Override
+    public void rawPrint(String message) {
+        outputLength += message.length();
+    }
+
+    @Override
+    public void println() {
+        outputLength++;
+    }
+
+    /** Returns the number of characters written since the creation of this terminal. */
+    public long getOutputLength() {
+        return outputLength;
+    }
+}
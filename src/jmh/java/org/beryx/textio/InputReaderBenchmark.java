@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Month;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the complete prompt/read/parse loop of {@link InputReader#read(List)} against an in-memory terminal.
+ * Each input sequence contains a few invalid values, in order to also exercise the error reporting path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputReaderBenchmark {
+    private final List<String> prompt = Collections.singletonList("Enter a value");
+
+    private IntInputReader intReader;
+    private StringInputReader stringReader;
+    private EnumInputReader<Month> enumReader;
+
+    @Setup
+    public void setup() {
+        intReader = new TextIO(new BenchmarkTerminal("abc", "3", "100000", "42"))
+                .newIntInputReader()
+                .withMinVal(10)
+                .withMaxVal(1000)
+                .withPropertyName("size");
+        stringReader = new TextIO(new BenchmarkTerminal("x", "john doe", "john_doe"))
+                .newStringInputReader()
+                .withMinLength(2)
+                .withPattern("[a-z_]+")
+                .withPropertyName("user");
+        enumReader = new TextIO(new BenchmarkTerminal("JANUARY", "13", "7"))
+                .newEnumInputReader(Month.class)
+                .withDefaultValue(Month.MAY);
+    }
+
+    @Benchmark
+    public Integer readInt() {
+        return intReader.read(prompt);
+    }
+
+    @Benchmark
+    public String readString() {
+        return stringReader.read(prompt);
+    }
+
+    @Benchmark
+    public Month readEnum() {
+        return enumReader.read(prompt);
+    }
+}
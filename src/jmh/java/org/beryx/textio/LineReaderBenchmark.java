@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.beryx.textio.system.ChannelLineReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link Scanner}-based line reading formerly used by {@link org.beryx.textio.system.SystemTextTerminal}
+ * with the {@link ChannelLineReader} used by the {@link org.beryx.textio.system.SystemTextTerminal} and {@link org.beryx.textio.system.ChannelSystemTextTerminal}.
+ * Each invocation reads all lines of an in-memory answer file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineReaderBenchmark {
+    @Param({"100000"})
+    public int lineCount;
+
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < lineCount; i++) {
+            sb.append("answer-").append(i).append(((i % 2) == 0) ? "\n" : "\r\n");
+        }
+        input = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void readWithScanner(Blackhole blackhole) {
+        Scanner scanner = new Scanner(new ByteArrayInputStream(input), "UTF-8");
+        try {
+            while(true) {
+                blackhole.consume(scanner.nextLine());
+            }
+        } catch (NoSuchElementException e) {
+            // end of input
+        }
+    }
+
+    @Benchmark
+    public void readWithChannelLineReader(Blackhole blackhole) throws IOException {
+        ChannelLineReader reader = new ChannelLineReader(Channels.newChannel(new ByteArrayInputStream(input)),
+                StandardCharsets.UTF_8, ChannelLineReader.DEFAULT_BUFFER_SIZE);
+        String line;
+        while((line = reader.readLine()) != null) {
+            blackhole.consume(line);
+        }
+    }
+}
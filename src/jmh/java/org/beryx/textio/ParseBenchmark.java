@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.beryx.textio.InputReader.ParseResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Month;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link InputReader#parse(String)} implementations, for both valid and invalid input strings.
+ * The <tt>*WithExceptions</tt> benchmarks replicate the former numeric parse implementations,
+ * which relied on catching {@link NumberFormatException}s. They serve as a baseline for the exception-free parsing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"valid", "invalid"})
+    public String inputKind;
+
+    private IntInputReader intReader;
+    private LongInputReader longReader;
+    private DoubleInputReader doubleReader;
+    private BooleanInputReader booleanReader;
+    private EnumInputReader<Month> enumReader;
+    private StringInputReader stringReader;
+
+    private String intInput;
+    private String longInput;
+    private String doubleInput;
+    private String booleanInput;
+    private String enumInput;
+    private String stringInput;
+
+    @Setup
+    public void setup() {
+        TextIO textIO = new TextIO(new BenchmarkTerminal(""));
+        intReader = textIO.newIntInputReader().withMinVal(0).withMaxVal(65535);
+        longReader = textIO.newLongInputReader().withMinVal(0L);
+        doubleReader = textIO.newDoubleInputReader().withMaxVal(1.0e6);
+        booleanReader = textIO.newBooleanInputReader().withTrueInput("yes").withFalseInput("no");
+        enumReader = textIO.newEnumInputReader(Month.class);
+        stringReader = textIO.newStringInputReader().withMinLength(3).withMaxLength(32).withPattern("[a-z][a-z0-9_]*");
+
+        boolean valid = "valid".equals(inputKind);
+        intInput = valid ? "8080" : "80a80";
+        longInput = valid ? "1234567890123" : "99999999999999999999";
+        doubleInput = valid ? "3.1415926" : "3,1415926";
+        booleanInput = valid ? "no" : "maybe";
+        enumInput = valid ? "SEPTEMBER" : "September";
+        stringInput = valid ? "john_doe_42" : "John Doe";
+    }
+
+    @Benchmark
+    public ParseResult<Integer> parseInt() {
+        return intReader.parse(intInput);
+    }
+
+    @Benchmark
+    public ParseResult<Long> parseLong() {
+        return longReader.parse(longInput);
+    }
+
+    @Benchmark
+    public ParseResult<Double> parseDouble() {
+        return doubleReader.parse(doubleInput);
+    }
+
+    @Benchmark
+    public ParseResult<Integer> parseIntWithExceptions() {
+        try {
+            Integer val = Integer.parseInt(intInput);
+            return intReader.isInRange(val) ? new ParseResult<>(val) : new ParseResult<>(val, intReader.getErrorMessage(intInput));
+        } catch (NumberFormatException e) {
+            return new ParseResult<>(null, intReader.getErrorMessage(intInput));
+        }
+    }
+
+    @Benchmark
+    public ParseResult<Long> parseLongWithExceptions() {
+        try {
+            Long val = Long.parseLong(longInput);
+            return longReader.isInRange(val) ? new ParseResult<>(val) : new ParseResult<>(val, longReader.getErrorMessage(longInput));
+        } catch (NumberFormatException e) {
+            return new ParseResult<>(null, longReader.getErrorMessage(longInput));
+        }
+    }
+
+    @Benchmark
+    public ParseResult<Double> parseDoubleWithExceptions() {
+        try {
+            Double val = Double.parseDouble(doubleInput);
+            return doubleReader.isInRange(val) ? new ParseResult<>(val) : new ParseResult<>(val, doubleReader.getErrorMessage(doubleInput));
+        } catch (NumberFormatException e) {
+            return new ParseResult<>(null, doubleReader.getErrorMessage(doubleInput));
+        }
+    }
+
+    @Benchmark
+    public ParseResult<Boolean> parseBoolean() {
+        return booleanReader.parse(booleanInput);
+    }
+
+    @Benchmark
+    public ParseResult<Month> parseEnum() {
+        return enumReader.parse(enumInput);
+    }
+
+    @Benchmark
+    public ParseResult<String> parseStringWithPattern() {
+        return stringReader.parse(stringInput);
+    }
+}
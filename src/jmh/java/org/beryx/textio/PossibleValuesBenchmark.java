@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.beryx.textio.InputReader.ParseResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of an input string against a large list of permitted values.
+ * The permitted values are configured either as (non-numbered) possible values or as allowed values.
+ * The input is the last permitted value, which is the worst case for a linear scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PossibleValuesBenchmark {
+    @Param({"100", "50000"})
+    public int valueCount;
+
+    private IntInputReader possibleValuesReader;
+    private IntInputReader allowedValuesReader;
+    private String input;
+
+    @Setup
+    public void setup() {
+        List<Integer> values = new ArrayList<>(valueCount);
+        int[] intValues = new int[valueCount];
+        for(int i = 0; i < valueCount; i++) {
+            values.add(3 * i);
+            intValues[i] = 3 * i;
+        }
+        TextIO textIO = new TextIO(new BenchmarkTerminal(""));
+        possibleValuesReader = textIO.newIntInputReader()
+                .withPossibleValues(values)
+                .withNumberedPossibleValues(false);
+        allowedValuesReader = textIO.newIntInputReader()
+                .withAllowedValues(intValues);
+        input = String.valueOf(3 * (valueCount - 1));
+    }
+
+    @Benchmark
+    public ParseResult<Integer> checkPossibleValues() {
+        return possibleValuesReader.parseAndCheck(input);
+    }
+
+    @Benchmark
+    public ParseResult<Integer> checkAllowedValues() {
+        return allowedValuesReader.parseAndCheck(input);
+    }
+}
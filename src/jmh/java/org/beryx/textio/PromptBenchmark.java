@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InputReader#printPrompt(List, TextTerminal, List)} for readers with a large number of possible values.
+ * The <tt>readPaged*</tt> benchmarks measure a complete read, with the possible values displayed in pages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptBenchmark {
+    @Param({"100", "10000"})
+    public int optionCount;
+
+    private final List<String> prompt = Collections.singletonList("Choose a host");
+
+    private BenchmarkTerminal terminal;
+    private StringInputReader numberedReader;
+    private StringInputReader plainReader;
+    private BenchmarkTerminal pagedTerminal;
+    private StringInputReader pagedReader;
+    private StringInputReader pagedSourceReader;
+
+    @Setup
+    public void setup() {
+        List<String> options = new ArrayList<>(optionCount);
+        for(int i = 0; i < optionCount; i++) {
+            options.add("host-" + i + ".example.org");
+        }
+        terminal = new BenchmarkTerminal("");
+        TextIO textIO = new TextIO(terminal);
+        numberedReader = textIO.newStringInputReader()
+                .withPossibleValues(options)
+                .withDefaultValue(options.get(optionCount / 2));
+        plainReader = textIO.newStringInputReader()
+                .withPossibleValues(options)
+                .withNumberedPossibleValues(false);
+
+        pagedTerminal = new BenchmarkTerminal("1");
+        TextIO pagedTextIO = new TextIO(pagedTerminal);
+        pagedReader = pagedTextIO.newStringInputReader()
+                .withPossibleValues(options)
+                .withPageSize(20);
+        pagedSourceReader = pagedTextIO.newStringInputReader()
+                .withPossibleValuesSource(options::stream)
+                .withPageSize(20);
+    }
+
+    @Benchmark
+    public long printNumberedPrompt() {
+        numberedReader.printPrompt(prompt, terminal, numberedReader.possibleValues);
+        return terminal.getOutputLength();
+    }
+
+    @Benchmark
+    public long printPlainPrompt() {
+        plainReader.printPrompt(prompt, terminal, plainReader.possibleValues);
+        return terminal.getOutputLength();
+    }
+
+    @Benchmark
+    public String readPagedList() {
+        return pagedReader.read(prompt);
+    }
+
+    @Benchmark
+    public String readPagedSource() {
+        return pagedSourceReader.read(prompt);
+    }
+}
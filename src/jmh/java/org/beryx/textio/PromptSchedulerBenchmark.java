@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Measures the throughput of the {@link PromptScheduler} when several threads compete for the terminal.
+ * Each operation acquires the terminal, performs a short amount of work and releases the terminal.
+ * The <tt>FAIR_LOCK</tt> and <tt>UNFAIR_LOCK</tt> variants use a {@link ReentrantLock} instead of a scheduler and serve as a baseline.
+ * <br>At the end of each iteration, the fairness is printed as the ratio between the smallest and the largest number
+ * of operations performed by a thread (1.0 means that all threads have been granted the terminal equally often).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class PromptSchedulerBenchmark {
+    @Param({"FIFO", "PRIORITY", "DEADLINE", "FAIR_LOCK", "UNFAIR_LOCK"})
+    public String arbitration;
+
+    @Param({"100"})
+    public int workTokens;
+
+    private PromptScheduler scheduler;
+    private ReentrantLock lock;
+    private final ConcurrentHashMap<Thread, LongAdder> grants = new ConcurrentHashMap<>();
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int priority;
+        LongAdder grants;
+
+        @Setup
+        public void setup(PromptSchedulerBenchmark benchmark) {
+            priority = (int)(Thread.currentThread().getId() % 3);
+            grants = benchmark.grants.computeIfAbsent(Thread.currentThread(), t -> new LongAdder());
+        }
+    }
+
+    @Setup
+    public void setup() {
+        if(arbitration.endsWith("_LOCK")) {
+            lock = new ReentrantLock(arbitration.equals("FAIR_LOCK"));
+        } else {
+            scheduler = new PromptScheduler(PromptScheduler.Policy.valueOf(arbitration));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printFairness() {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for(LongAdder adder : grants.values()) {
+            long count = adder.sumThenReset();
+            min = Math.min(min, count);
+            max = Math.max(max, count);
+        }
+        if(max > 0) System.out.printf("  [fairness: %.3f]", (double)min / max);
+    }
+
+    @Benchmark
+    public void acquireAndRelease(ThreadState state) {
+        if(scheduler != null) {
+            scheduler.acquire(state.priority, null);
+            try {
+                Blackhole.consumeCPU(workTokens);
+            } finally {
+                scheduler.release();
+            }
+        } else {
+            lock.lock();
+            try {
+                Blackhole.consumeCPU(workTokens);
+            } finally {
+                lock.unlock();
+            }
+        }
+        state.grants.increment();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.beryx.textio.nio.NioTextTerminal;
+import org.beryx.textio.nio.UnixSocketTextTerminalProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to the first prompt in a fresh JVM: the discovery performed by {@link TextIoFactory#getTextIO()},
+ * the creation of the terminal and the printing of a prompt.
+ * Each fork measures a single invocation, so the class loading and initialization costs are included.
+ * <br>The <tt>provider</tt> parameter selects the terminal:
+ * <ul>
+ *     <li><tt>default</tt> - the default providers. In a forked benchmark JVM there is no console,
+ *     so this measures the probing of the console and Swing providers, followed by the creation of a SystemTextTerminal.</li>
+ *     <li><tt>system</tt>, <tt>nio</tt> - the {@value TextIoFactory#TEXT_TERMINAL_CLASS_PROPERTY} property selects a built-in terminal.</li>
+ *     <li><tt>custom</tt> - the {@value TextIoFactory#TEXT_TERMINAL_CLASS_PROPERTY} property selects the {@link BenchmarkTerminal},
+ *     which is not a built-in terminal.</li>
+ *     <li><tt>unixSocket</tt> - the {@link UnixSocketTextTerminalProvider} provides a terminal listening on a temporary socket.
+ *     Requires Java 16 or later; otherwise it measures the default providers.</li>
+ * </ul>
+ * The Swing terminal can be measured on a desktop with <tt>-p provider=swing</tt>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+    @Param({"default", "system", "nio", "custom", "unixSocket"})
+    public String provider;
+
+    private File socketFile;
+    /** True if the output of the terminal is buffered. The type check is avoided, in order to not load the class in other forks. */
+    private boolean flushRequired;
+
+    @Setup
+    public void setup() throws Exception {
+        String clsName = null;
+        switch(provider) {
+            case "system": clsName = "org.beryx.textio.system.SystemTextTerminal"; break;
+            case "nio": clsName = "org.beryx.textio.nio.NioTextTerminal"; flushRequired = true; break;
+            case "swing": clsName = "org.beryx.textio.swing.SwingTextTerminal"; break;
+            case "custom": clsName = "org.beryx.textio.BenchmarkTerminal"; break;
+            case "unixSocket":
+                socketFile = File.createTempFile("textio-startup", ".sock");
+                socketFile.delete();
+                System.setProperty(UnixSocketTextTerminalProvider.SOCKET_PATH_PROPERTY, socketFile.getAbsolutePath());
+                break;
+        }
+        if(clsName != null) {
+            System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, clsName);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        TextTerminal terminal = TextIoFactory.getTextTerminal();
+        terminal.dispose();
+        if(terminal instanceof Closeable) ((Closeable)terminal).close();
+        if(socketFile != null) socketFile.delete();
+    }
+
+    @Benchmark
+    public TextTerminal firstPrompt() {
+        TextTerminal terminal = TextIoFactory.getTextIO().getTextTerminal();
+        terminal.print("Name: ");
+        if(flushRequired) ((NioTextTerminal)terminal).flush();
+        return terminal;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.beryx.textio.console.ConsoleTextTerminalProvider;
+import org.beryx.textio.swing.SwingTextTerminalProvider;
+import org.beryx.textio.system.SystemTextTerminalProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of TextIO sessions.
+ * <ul>
+ *     <li><tt>newTextIO</tt> - {@link TextIoFactory#newTextIO()}, which uses the cached discovery result.</li>
+ *     <li><tt>newTextIOWithDiscovery</tt> - replicates the former approach, which ran the complete discovery
+ *     (system property lookup, {@link ServiceLoader}, default providers) for each TextIO instance.</li>
+ *     <li><tt>pooledTextIO</tt> - acquires a TextIO from a {@link TextIoPool} and releases it.</li>
+ * </ul>
+ * The {@value TextIoFactory#TEXT_TERMINAL_CLASS_PROPERTY} property selects the {@link BenchmarkTerminal}.
+ * The default providers cannot be used, because the SystemTextTerminal provided in a forked benchmark JVM does not support independent sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextIoFactoryBenchmark {
+    private TextIoPool pool;
+
+    @Setup
+    public void setup() {
+        System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, BenchmarkTerminal.class.getName());
+        pool = TextIoFactory.newTextIoPool(16);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public TextIO newTextIO() {
+        return TextIoFactory.newTextIO();
+    }
+
+    @Benchmark
+    public TextIO newTextIOWithDiscovery() throws Exception {
+        TextTerminal terminal = null;
+        String clsName = System.getProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, "").trim();
+        if(!clsName.isEmpty()) {
+            terminal = (TextTerminal)Class.forName(clsName).newInstance();
+        }
+        if(terminal == null) {
+            Iterator<TextTerminalProvider> it = ServiceLoader.load(TextTerminalProvider.class).iterator();
+            while(terminal == null && it.hasNext()) {
+                terminal = it.next().getTextTerminal();
+            }
+        }
+        if(terminal == null) terminal = new ConsoleTextTerminalProvider().getTextTerminal();
+        if(terminal == null) terminal = new SwingTextTerminalProvider().getTextTerminal();
+        if(terminal == null) terminal = new SystemTextTerminalProvider().getTextTerminal();
+        return new TextIO(terminal);
+    }
+
+    @Benchmark
+    public TextIO pooledTextIO() {
+        TextIO textIO = pool.acquire();
+        pool.release(textIO);
+        return textIO;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the default print methods of {@link TextTerminal}.
+ * Run it with <tt>-PjmhProfilers=gc</tt> in order to see the allocation rate of each print method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextTerminalBenchmark {
+    private final BenchmarkTerminal terminal = new BenchmarkTerminal("");
+
+    private final String singleLine = "Enter the name of the target host";
+    private final String multiLine = "Deployment summary:\n  hosts: 12\r\n  services: 4\n  status: OK";
+    private final List<String> singleLineMessages = Arrays.asList("Invalid value for 'port'.", "Expected an integer value between 1 and 65535.");
+    private final List<String> multiLineMessages = Arrays.asList("Invalid value for 'port'.\nExpected an integer value.", "Choose a port:\n  8080\n  8443");
+    private final char[] multiLineChars = multiLine.toCharArray();
+
+    @Benchmark
+    public long printSingleLine() {
+        terminal.print(singleLine);
+        return terminal.getOutputLength();
+    }
+
+    @Benchmark
+    public long printMultiLine() {
+        terminal.print(multiLine);
+        return terminal.getOutputLength();
+    }
+
+    @Benchmark
+    public long printListOfSingleLines() {
+        terminal.print(singleLineMessages);
+        return terminal.getOutputLength();
+    }
+
+    @Benchmark
+    public long printListOfMultiLines() {
+        terminal.print(multiLineMessages);
+        return terminal.getOutputLength();
+    }
+
+    @Benchmark
+    public long printCharArray() {
+        terminal.print(multiLineChars, 0, multiLineChars.length);
+        return terminal.getOutputLength();
+    }
+}
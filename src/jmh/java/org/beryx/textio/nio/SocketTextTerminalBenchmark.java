@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link SocketTextTerminalServer} over the loopback interface.
+ * <ul>
+ *     <li><tt>promptRoundTrip</tt> - the time between sending an answer and receiving the next prompt,
+ *     while <tt>idleSessions</tt> other sessions are waiting for input.</li>
+ *     <li><tt>connectSessions</tt> - the time needed to open <tt>connections</tt> sessions and to receive their first prompt.</li>
+ * </ul>
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SocketTextTerminalBenchmark {
+    private static SocketTextTerminalServer startEchoServer() throws IOException {
+        SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        return new SocketTextTerminalServer(address, textIO -> {
+            while(true) {
+                textIO.newStringInputReader().read("Echo");
+            }
+        }).start();
+    }
+
+    @State(Scope.Benchmark)
+    public static class RoundTripState {
+        @Param({"0", "1000"})
+        public int idleSessions;
+
+        SocketTextTerminalServer server;
+        SocketTextTerminalClient client;
+        final List<SocketTextTerminalClient> idleClients = new ArrayList<>();
+
+        @Setup
+        public void setup() throws IOException {
+            server = startEchoServer();
+            for(int i = 0; i < idleSessions; i++) {
+                SocketTextTerminalClient idleClient = new SocketTextTerminalClient(server.getLocalAddress());
+                idleClient.readUntil("Echo: ");
+                idleClients.add(idleClient);
+            }
+            client = new SocketTextTerminalClient(server.getLocalAddress());
+            client.readUntil("Echo: ");
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            client.close();
+            for(SocketTextTerminalClient idleClient : idleClients) {
+                idleClient.close();
+            }
+            server.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ConnectState {
+        @Param({"1000"})
+        public int connections;
+
+        SocketTextTerminalServer server;
+        final List<SocketTextTerminalClient> clients = new ArrayList<>();
+
+        @Setup
+        public void setup() throws IOException {
+            server = startEchoServer();
+        }
+
+        @TearDown(Level.Invocation)
+        public void closeClients() throws IOException {
+            for(SocketTextTerminalClient client : clients) {
+                client.close();
+            }
+            clients.clear();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            server.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String promptRoundTrip(RoundTripState state) throws IOException {
+        state.client.sendLine("ping");
+        return state.client.readUntil("Echo: ");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public int connectSessions(ConnectState state) throws IOException {
+        for(int i = 0; i < state.connections; i++) {
+            state.clients.add(new SocketTextTerminalClient(state.server.getLocalAddress()));
+        }
+        for(SocketTextTerminalClient client : state.clients) {
+            client.readUntil("Echo: ");
+        }
+        return state.server.getSessionCount();
+    }
+}
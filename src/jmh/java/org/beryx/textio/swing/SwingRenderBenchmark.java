@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link JTextArea} used by the {@link SwingTextTerminal} with the {@link VirtualTextView} used by the {@link VirtualSwingTextTerminal},
+ * after <tt>lineCount</tt> lines of output have been appended.
+ * <br>{@link #paintViewport()} paints the last screen of text into an off-screen image. Its throughput corresponds to the achievable frame rate.
+ * <br>{@link #appendBatch()} measures the cost of appending a batch of 100 lines at the end of the session.
+ * <br>The heap retained by each component is printed during the setup.
+ * Run with <tt>-PjmhIncludes=SwingRenderBenchmark</tt>. The benchmark does not require a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class SwingRenderBenchmark {
+    private static final int VIEWPORT_WIDTH = 800;
+    private static final int VIEWPORT_HEIGHT = 600;
+
+    @Param({"JTextArea", "virtual"})
+    public String backend;
+
+    @Param({"1000000"})
+    public int lineCount;
+
+    private JComponent component;
+    private JTextArea textArea;
+    private LineBuffer lineBuffer;
+    private VirtualTextView view;
+    private Graphics2D graphics;
+    private String batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Font font = new Font(Font.MONOSPACED, Font.PLAIN, 15);
+        long heapBefore = usedHeap();
+        if("JTextArea".equals(backend)) {
+            textArea = new JTextArea();
+            textArea.setLineWrap(true);
+            textArea.setFont(font);
+            textArea.setSize(VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+            StringBuilder sb = new StringBuilder(lineCount * 48);
+            for(int i = 0; i < lineCount; i++) appendLine(sb, i);
+            textArea.setText(sb.toString());
+            textArea.setSize(VIEWPORT_WIDTH, textArea.getPreferredSize().height);
+            component = textArea;
+        } else {
+            lineBuffer = new LineBuffer();
+            StringBuilder sb = new StringBuilder(48);
+            for(int i = 0; i < lineCount; i++) {
+                sb.setLength(0);
+                appendLine(sb, i);
+                lineBuffer.append(sb, 0, sb.length());
+            }
+            view = new VirtualTextView(lineBuffer);
+            view.setFont(font);
+            view.setSize(view.getPreferredSize());
+            component = view;
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("%n%s with %d lines retains about %d MB%n", backend, lineCount, (heapAfter - heapBefore) / (1024 * 1024));
+
+        BufferedImage image = new BufferedImage(VIEWPORT_WIDTH, VIEWPORT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        int viewY = Math.max(0, component.getHeight() - VIEWPORT_HEIGHT);
+        graphics.translate(0, -viewY);
+        graphics.setClip(0, viewY, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 100; i++) appendLine(sb, lineCount + i);
+        batch = sb.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public JComponent paintViewport() {
+        component.paint(graphics);
+        return component;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public JComponent appendBatch() {
+        if(textArea != null) {
+            textArea.append(batch);
+        } else {
+            lineBuffer.append(batch, 0, batch.length());
+            lineBuffer.trim(lineCount);
+        }
+        return component;
+    }
+
+    private static void appendLine(StringBuilder sb, int index) {
+        sb.append("Line ").append(index).append(": the quick brown fox jumps over the lazy dog\n");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.util.Arrays;
+
+/**
+ * The text of a prompt, rendered once and printed as many times as needed.
+ * <br>The text is stored in a single buffer, together with the offsets of the line breaks,
+ * so that printing it does not require scanning for line separators or concatenating strings.
+ */
+class CompiledPrompt {
+    private final String text;
+    private final int[] lineEnds;
+
+    private CompiledPrompt(String text, int[] lineEnds) {
+        this.text = text;
+        this.lineEnds = lineEnds;
+    }
+
+    /** Sends the prompt to the terminal, using the same sequence of calls as {@link TextTerminal#print(CharSequence)}. */
+    void print(TextTerminal textTerminal) {
+        int start = 0;
+        for(int end : lineEnds) {
+            textTerminal.rawPrint(text, start, end);
+            textTerminal.println();
+            start = end;
+        }
+        textTerminal.rawPrint(text, start, text.length());
+    }
+
+    /** Returns the text of the prompt, with the line breaks represented by <tt>\n</tt>. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(text.length() + lineEnds.length);
+        int start = 0;
+        for(int end : lineEnds) {
+            sb.append(text, start, end).append('\n');
+            start = end;
+        }
+        return sb.append(text, start, text.length()).toString();
+    }
+
+    static class Builder {
+        private final StringBuilder text = new StringBuilder();
+        private int[] lineEnds = new int[16];
+        private int lineCount = 0;
+
+        /** Appends text that possibly contains line separators. */
+        Builder append(CharSequence s) {
+            int len = s.length();
+            int start = 0;
+            for(int i = 0; i < len; i++) {
+                char ch = s.charAt(i);
+                if(LineSeparators.isLineSeparator(ch)) {
+                    text.append(s, start, i);
+                    newLine();
+                    if(ch == '\r' && i + 1 < len && s.charAt(i + 1) == '\n') i++;
+                    start = i + 1;
+                }
+            }
+            text.append(s, start, len);
+            return this;
+        }
+
+        /** Terminates the current line. */
+        Builder newLine() {
+            if(lineCount == lineEnds.length) lineEnds = Arrays.copyOf(lineEnds, 2 * lineCount);
+            lineEnds[lineCount++] = text.length();
+            return this;
+        }
+
+        CompiledPrompt build() {
+            return new CompiledPrompt(text.toString(), Arrays.copyOf(lineEnds, lineCount));
+        }
+    }
+}
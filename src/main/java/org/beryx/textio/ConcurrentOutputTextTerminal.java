@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A {@link TextTerminal} decorator that allows several threads to print concurrently, for example to report progress while a prompt is active.
+ * <br>Each thread accumulates the text of its current line in a thread-local buffer.
+ * When the thread terminates the line, the line is added to a lock-free queue.
+ * The queue is drained by a single writer task running on an {@link Executor}, which is the only one that prints to the decorated terminal.
+ * Therefore, lines printed by different threads are never interleaved and the printing threads never block on the decorated terminal.
+ * <br>The text printed by the reading thread before calling a read method is the prompt.
+ * Lines printed while a prompt is active are displayed above the prompt, which is redrawn afterwards.
+ * If the decorated terminal understands ANSI escape sequences, the prompt line is erased before printing the lines.
+ * Otherwise, the prompt line is terminated and the prompt is printed again after the lines.
+ * Characters already typed by the user are not redrawn.
+ * The decorated terminal is {@link TextTerminal#flush() flushed} after each batch of lines, so that terminals with buffered output
+ * display the lines while the read is pending.
+ * <br>A line that has not been terminated is printed only when the thread terminates it, reads a value or calls {@link #dispose()}.
+ */
+public class ConcurrentOutputTextTerminal implements TextTerminal {
+    private static final Logger logger =  LoggerFactory.getLogger(ConcurrentOutputTextTerminal.class);
+
+    /** Erases the current line and moves the cursor to its beginning. */
+    private static final String ANSI_ERASE_LINE = "\u001B[2K\u001B[1G";
+
+    private final TextTerminal delegate;
+    private final Executor executor;
+    private final boolean ansiSupported;
+
+    private final ThreadLocal<StringBuilder> currentLine = ThreadLocal.withInitial(StringBuilder::new);
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Runnable writer = this::drain;
+
+    // Accessed only by the writer task
+    private Prompt prompt;
+    private boolean promptShown = false;
+
+    /** An entry in the output queue: either a complete line, or a request to show a prompt or to dispose the terminal. */
+    private static class Entry {
+        final String line;
+        final Prompt prompt;
+        final CountDownLatch disposed;
+
+        Entry(String line, Prompt prompt, CountDownLatch disposed) {
+            this.line = line;
+            this.prompt = prompt;
+            this.disposed = disposed;
+        }
+    }
+
+    private static class Prompt {
+        final String text;
+        final CountDownLatch shown = new CountDownLatch(1);
+        volatile boolean finished = false;
+
+        Prompt(String text) {
+            this.text = text;
+        }
+    }
+
+    /** Creates a decorator that uses the {@link TextIO#getDefaultExecutor()} and no ANSI escape sequences. */
+    public ConcurrentOutputTextTerminal(TextTerminal delegate) {
+        this(delegate, TextIO.getDefaultExecutor(), false);
+    }
+
+    /**
+     * @param delegate the decorated terminal
+     * @param executor the executor running the writer task. At most one writer task is running at any time.
+     * @param ansiSupported true, if the decorated terminal is able to erase the prompt line using ANSI escape sequences.
+     */
+    public ConcurrentOutputTextTerminal(TextTerminal delegate, Executor executor, boolean ansiSupported) {
+        if(delegate == null) throw new IllegalArgumentException("delegate is null");
+        if(executor == null) throw new IllegalArgumentException("executor is null");
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ansiSupported = ansiSupported;
+    }
+
+    public TextTerminal getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String read(boolean masking) {
+        return readAfterPrompt(() -> delegate.read(masking));
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout) {
+        return readAfterPrompt(() -> delegate.read(masking, timeout));
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout, ReadToken token) {
+        return readAfterPrompt(() -> delegate.read(masking, timeout, token));
+    }
+
+    /** Displays the text printed by the calling thread after its last line separator as prompt and reads from the decorated terminal. */
+    private String readAfterPrompt(Supplier<String> delegateRead) {
+        Prompt currentPrompt = new Prompt(takeCurrentLine());
+        enqueue(new Entry(null, currentPrompt, null));
+        try {
+            try {
+                currentPrompt.shown.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReadInterruptedException("read interrupted", e);
+            }
+            return delegateRead.get();
+        } finally {
+            currentPrompt.finished = true;
+        }
+    }
+
+    @Override
+    public void cancelRead() {
+        delegate.cancelRead();
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return delegate.isInteractive();
+    }
+
+    @Override
+    public void rawPrint(String message) {
+        currentLine.get().append(message);
+    }
+
+    @Override
+    public void rawPrint(CharSequence text, int start, int end) {
+        currentLine.get().append(text, start, end);
+    }
+
+    @Override
+    public void println() {
+        enqueue(new Entry(takeCurrentLine(), null, null));
+    }
+
+    /**
+     * Prints the unterminated line of the calling thread, waits until all queued lines have been printed and disposes the decorated terminal.
+     */
+    @Override
+    public void dispose() {
+        StringBuilder line = currentLine.get();
+        if(line.length() > 0) println();
+        CountDownLatch disposed = new CountDownLatch(1);
+        enqueue(new Entry(null, null, disposed));
+        try {
+            disposed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String takeCurrentLine() {
+        StringBuilder line = currentLine.get();
+        String text = line.toString();
+        line.setLength(0);
+        return text;
+    }
+
+    private void enqueue(Entry entry) {
+        queue.offer(entry);
+        if(wip.getAndIncrement() == 0) {
+            executor.execute(writer);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            Entry entry;
+            while((entry = queue.poll()) != null) {
+                try {
+                    write(entry);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to write to the text terminal.", e);
+                } finally {
+                    if(entry.prompt != null) entry.prompt.shown.countDown();
+                    if(entry.disposed != null) entry.disposed.countDown();
+                }
+            }
+            try {
+                delegate.flush();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to flush the text terminal.", e);
+            }
+            missed = wip.addAndGet(-missed);
+        } while(missed != 0);
+    }
+
+    private void write(Entry entry) {
+        if(prompt != null && prompt.finished) {
+            prompt = null;
+            promptShown = false;
+        }
+        if(entry.line != null) {
+            if(promptShown) hidePrompt();
+            delegate.print(entry.line);
+            delegate.println();
+            if(prompt != null) showPrompt();
+        } else if(entry.prompt != null) {
+            prompt = entry.prompt;
+            showPrompt();
+        } else {
+            delegate.dispose();
+        }
+    }
+
+    private void showPrompt() {
+        delegate.print(prompt.text);
+        promptShown = !prompt.text.isEmpty();
+    }
+
+    private void hidePrompt() {
+        if(ansiSupported) {
+            delegate.rawPrint(ANSI_ERASE_LINE);
+        } else {
+            delegate.println();
+        }
+        promptShown = false;
+    }
+}
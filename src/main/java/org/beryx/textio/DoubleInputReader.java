@@ -15,16 +15,28 @@
  */
 package org.beryx.textio;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
  * A reader for double values.
  */
 public class DoubleInputReader extends ComparableInputReader<Double, DoubleInputReader> {
+
     public DoubleInputReader(Supplier<TextTerminal> textTerminalSupplier) {
         super(textTerminalSupplier);
     }
 
+    /** Reads a double value. This convenience method unboxes the value returned by {@link #read(String...)}. */
+    public double readDouble(String... prompt) {
+        return read(prompt);
+    }
+
+    /** Reads a double value. This convenience method unboxes the value returned by {@link #read(List)}. */
+    public double readDouble(List<String> prompt) {
+        return read(prompt);
+    }
+
     @Override
     protected String typeNameWithIndefiniteArticle() {
         return "a double";
@@ -32,11 +44,12 @@ public class DoubleInputReader extends ComparableInputReader<Double, DoubleInput
 
     @Override
     public ParseResult<Double> parse(String s) {
-        try {
-            Double val = Double.parseDouble(s);
-            return isInRange(val) ? new ParseResult<>(val) : new ParseResult<>(val, getErrorMessage(s));
-        } catch (NumberFormatException e) {
-            return new ParseResult<>(null, getErrorMessage(s));
-        }
+        NumberParser numberParser = new NumberParser();
+        // NEGATIVE_INFINITY and NaN are the lowest and the highest values in the ordering used by Double.compareTo()
+        int status = numberParser.parseDouble(s,
+                (minVal == null) ? Double.NEGATIVE_INFINITY : minVal, (maxVal == null) ? Double.NaN : maxVal);
+        if(status == NumberParser.INVALID_FORMAT) return new ParseResult<>(null, getErrorMessage(s));
+        Double val = numberParser.getDoubleValue();
+        return (status == NumberParser.VALID) ? new ParseResult<>(val) : new ParseResult<>(val, getErrorMessage(s));
     }
 }
@@ -18,6 +18,7 @@ package org.beryx.textio;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A reader for enum values.
@@ -53,6 +54,12 @@ public class EnumInputReader<T extends Enum<T>> extends InputReader<T, EnumInput
         throw new UnsupportedOperationException();
     }
 
+    /** Always throws UnsupportedOperationException. */
+    @Override
+    public EnumInputReader<T> withPossibleValuesSource(Supplier<? extends Stream<T>> possibleValuesSource) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public ParseResult<T> parse(String s) {
         T value = enumValues.get(s);
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Helps {@link TextTerminal} implementations that read from blocking streams to implement {@link TextTerminal#read(boolean, Duration)}.
+ * <br>Instead of starting a thread for each pending read, the calling thread periodically checks if input is available,
+ * until the timeout elapses or the read is cancelled.
+ * <br>Instances of this class are thread-safe: {@link #cancel()} is typically called by another thread than {@link #awaitInput(BooleanSupplier, Duration)}.
+ */
+public class InputPoller {
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 20;
+
+    private final long pollIntervalNanos;
+    private final Set<ReadToken> activeReads = ConcurrentHashMap.newKeySet();
+
+    public InputPoller() {
+        this(DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    public InputPoller(long pollIntervalMillis) {
+        if(pollIntervalMillis <= 0) throw new IllegalArgumentException("pollIntervalMillis = " + pollIntervalMillis);
+        this.pollIntervalNanos = pollIntervalMillis * 1_000_000L;
+    }
+
+    /**
+     * Waits until <tt>inputAvailable</tt> returns true.
+     * @see #awaitInput(BooleanSupplier, Duration, ReadToken)
+     */
+    public void awaitInput(BooleanSupplier inputAvailable, Duration timeout) {
+        awaitInput(inputAvailable, timeout, new ReadToken());
+    }
+
+    /**
+     * Waits until <tt>inputAvailable</tt> returns true, on behalf of the given token.
+     * When this method returns normally, the input has been {@link ReadToken#consumeInput() consumed} on behalf of the token.
+     * @param inputAvailable returns true if the input can be read without blocking.
+     * @param timeout the maximum time to wait. If null, there is no time limit.
+     * @throws ReadTimeoutException if the timeout elapsed
+     * @throws ReadCancelledException if the token or this call has been cancelled
+     * @throws ReadInterruptedException if the calling thread has been interrupted while waiting
+     */
+    public void awaitInput(BooleanSupplier inputAvailable, Duration timeout, ReadToken token) {
+        long deadline = (timeout == null) ? 0 : System.nanoTime() + timeout.toNanos();
+        Thread thread = Thread.currentThread();
+        token.register(() -> LockSupport.unpark(thread));
+        activeReads.add(token);
+        try {
+            while(true) {
+                if(token.isCancelled()) throw new ReadCancelledException("read cancelled");
+                if(inputAvailable.getAsBoolean()) {
+                    if(!token.consumeInput()) throw new ReadCancelledException("read cancelled");
+                    return;
+                }
+                long sleepNanos = pollIntervalNanos;
+                if(timeout != null) {
+                    long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) throw new ReadTimeoutException("No input provided within " + timeout);
+                    sleepNanos = Math.min(sleepNanos, remaining);
+                }
+                LockSupport.parkNanos(this, sleepNanos);
+                if(Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new ReadInterruptedException("read interrupted", new InterruptedException());
+                }
+            }
+        } finally {
+            activeReads.remove(token);
+            token.unregister();
+        }
+    }
+
+    /** Cancels the calls of {@link #awaitInput(BooleanSupplier, Duration, ReadToken)} that are in progress. Later calls are not affected. */
+    public void cancel() {
+        for(ReadToken token : activeReads) {
+            token.cancel();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A publisher of the values read by an {@link InputReader}, created by {@link InputReader#publisher(InputReader.InvalidInputHandler, java.util.List)}.
+ * <br>The {@link Subscriber} and {@link Subscription} interfaces have the same methods and semantics as their counterparts
+ * in <tt>java.util.concurrent.Flow</tt> and in the Reactive Streams specification, which are not available on Java 8.
+ * Adapting them to one of these APIs requires only delegating the method calls.
+ * <br>Values are read from the {@link TextTerminal} only while there is outstanding demand.
+ * Invalid input strings are passed to the configured {@link InputReader.InvalidInputHandler} and do not terminate the sequence.
+ * The sequence completes when the end of the input is reached.
+ * <br>The reads are performed by tasks submitted to the executor of the reader (see {@link TextIO#setExecutor(Executor)}),
+ * so the subscriber is signaled on the threads of this executor, one signal at a time.
+ * <br>Because each input string can be consumed only once, a publisher accepts a single subscriber.
+ * Further subscribers are immediately signaled with an {@link IllegalStateException}.
+ */
+public class InputPublisher<T> {
+    /** Receives the values of an {@link InputPublisher}. Equivalent to <tt>java.util.concurrent.Flow.Subscriber</tt>. */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+        void onNext(T item);
+        void onError(Throwable throwable);
+        void onComplete();
+    }
+
+    /** Links an {@link InputPublisher} and a {@link Subscriber}. Equivalent to <tt>java.util.concurrent.Flow.Subscription</tt>. */
+    public interface Subscription {
+        /** Adds n values to the demand. If n is not positive, the subscriber is signaled with an {@link IllegalArgumentException}. */
+        void request(long n);
+
+        /** Stops the publishing. A pending read of this subscription is cancelled, while the reads of other callers are not affected. */
+        void cancel();
+    }
+
+    private static final Subscription EMPTY_SUBSCRIPTION = new Subscription() {
+        @Override public void request(long n) {}
+        @Override public void cancel() {}
+    };
+
+    private final Function<ReadToken, Stream<T>> streamFactory;
+    private final Supplier<Executor> executorSupplier;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * @param streamFactory creates the stream of values, whose reads are cancelled by the given token. Called only once, when the first value is requested.
+     * @param executorSupplier supplies the executor that performs the reads. Called when a subscriber subscribes.
+     */
+    InputPublisher(Function<ReadToken, Stream<T>> streamFactory, Supplier<Executor> executorSupplier) {
+        this.streamFactory = streamFactory;
+        this.executorSupplier = executorSupplier;
+    }
+
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if(subscriber == null) throw new NullPointerException("subscriber is null");
+        if(!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(EMPTY_SUBSCRIPTION);
+            subscriber.onError(new IllegalStateException("This publisher accepts only one subscriber."));
+            return;
+        }
+        subscriber.onSubscribe(new InputSubscription(subscriber, executorSupplier.get()));
+    }
+
+    /**
+     * The signals to the subscriber are emitted only by {@link #run()}, which is serialized by the <tt>wip</tt> counter:
+     * a request arriving while a task is running causes the running task to loop instead of starting a new one.
+     * <br>The reads of the stream are tied to the token of the subscription, so that {@link #cancel()} never cancels the read of another thread.
+     */
+    private class InputSubscription implements Subscription, Runnable {
+        private final Subscriber<? super T> subscriber;
+        private final Executor executor;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final ReadToken token = new ReadToken();
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest;
+
+        // Accessed only by run()
+        private Spliterator<T> values;
+        private boolean done = false;
+
+        InputSubscription(Subscriber<? super T> subscriber, Executor executor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if(n <= 0) {
+                invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+            } else {
+                demand.getAndUpdate(d -> (d + n < 0) ? Long.MAX_VALUE : d + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            token.cancel();
+        }
+
+        private void schedule() {
+            if(wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    cancelled = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while(missed != 0);
+        }
+
+        private void drain() {
+            while(!done && !cancelled) {
+                if(invalidRequest != null) {
+                    terminate(invalidRequest);
+                    return;
+                }
+                if(demand.get() == 0) return;
+                boolean advanced;
+                try {
+                    if(values == null) values = streamFactory.apply(token).spliterator();
+                    advanced = values.tryAdvance(this::emit);
+                } catch (Throwable t) {
+                    if(!cancelled) terminate(t);
+                    return;
+                }
+                if(!advanced) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+            }
+        }
+
+        private void emit(T value) {
+            if(demand.get() != Long.MAX_VALUE) demand.decrementAndGet();
+            subscriber.onNext(value);
+        }
+
+        private void terminate(Throwable t) {
+            done = true;
+            cancelled = true;
+            subscriber.onError(t);
+        }
+    }
+}
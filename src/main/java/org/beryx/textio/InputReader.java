@@ -15,12 +15,15 @@
  */
 package org.beryx.textio;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A reader for values of type T.
@@ -41,6 +44,17 @@ public abstract class InputReader<T, B extends InputReader<T, B>> {
         List<String> getErrorMessage(String sVal, String propertyName);
     }
 
+    /** Functional interface for handling the invalid input strings encountered by {@link #stream(InvalidInputHandler, List)} */
+    @FunctionalInterface
+    public static interface InvalidInputHandler {
+        /**
+         * Called for each input string that cannot be converted to a valid value.
+         * @param sVal the input string. May be null.
+         * @param errorMessages the list of error messages for this input string.
+         */
+        void handleInvalidInput(String sVal, List<String> errorMessages);
+    }
+
     /**
      * A holder object returned by the {@link #parse(String)} method, containing the parsed value and/or the error messages.
      * @param <T>
@@ -79,9 +93,27 @@ public abstract class InputReader<T, B extends InputReader<T, B>> {
     /** null, if there is no default value */
     protected T defaultValue;
 
-    /** Non-null and non-empty, if the value to be read must be chosen from a list of allowed values. */
+    /**
+     * Non-null and non-empty, if the value to be read must be chosen from a list of allowed values.
+     * The list should not be modified after configuring the reader, because an index of its values is used for validating the input.
+     */
     protected List<T> possibleValues;
 
+    /** The index of the {@link #possibleValues}. Built when the possible values are configured or, lazily, when they are first needed. */
+    private PossibleValuesIndex<T> possibleValuesIndex;
+
+    /**
+     * A lazily evaluated source of possible values, used instead of {@link #possibleValues} when the values should not be materialized.
+     * Each call of the supplier must return a new stream containing the same values in the same order.
+     */
+    protected Supplier<? extends Stream<T>> possibleValuesSource;
+
+    /** The default number of possible values displayed on a page, if the values are provided by a {@link #possibleValuesSource}. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** If positive, the possible values will be displayed in pages containing at most pageSize values. */
+    protected int pageSize = 0;
+
     /** If true, the list of possible values will be numbered and the desired value will be selected by choosing the corresponding number. */
     protected boolean numberedPossibleValues = false;
 
@@ -100,6 +132,18 @@ public abstract class InputReader<T, B extends InputReader<T, B>> {
     /** The formatter used when displaying values of type T. Default: use {@link String#valueOf(Object)} */
     protected Function<T, String> valueFormatter = val -> String.valueOf(val);
 
+    /** The prompt rendered by the last call of {@link #printPrompt(List, TextTerminal, List)}. Cleared by the <tt>with*</tt> methods. */
+    private PromptCache<T> promptCache;
+
+    /** Supplies the executor used by the <tt>readAsync</tt> methods. The {@link TextIO} that created this reader supplies its own executor. */
+    Supplier<Executor> executorSupplier = TextIO::getDefaultExecutor;
+
+    /** Supplies the scheduler that grants the terminal to one read at a time. Null, if reads are not scheduled. */
+    Supplier<PromptScheduler> promptSchedulerSupplier = () -> null;
+
+    /** The priority of the reads, used if the {@link PromptScheduler} has the {@link PromptScheduler.Policy#PRIORITY} policy. Default: 0 */
+    protected int priority = 0;
+
     /**
      * Parses the input string
      * @param s the input string
@@ -113,52 +157,103 @@ public abstract class InputReader<T, B extends InputReader<T, B>> {
 
     public B withDefaultValue(T defaultValue) {
         this.defaultValue = defaultValue;
+        promptCache = null;
         return (B)this;
     }
 
     public B withPossibleValues(T... possibleValues) {
-        this.possibleValues = null;
-        if(possibleValues.length > 0) {
-            this.possibleValues = new ArrayList<>();
-            for(T val : possibleValues) {
-                this.possibleValues.add(val);
-            }
-        }
-        return (B)this;
+        return withPossibleValues((possibleValues.length == 0) ? null : new ArrayList<>(Arrays.asList(possibleValues)));
     }
 
     public B withPossibleValues(List<T> possibleValues) {
         this.possibleValues = (possibleValues != null && possibleValues.isEmpty()) ? null : possibleValues;
+        this.possibleValuesIndex = (this.possibleValues == null) ? null : new PossibleValuesIndex<>(this.possibleValues);
+        if(this.possibleValues != null) this.possibleValuesSource = null;
+        promptCache = null;
+        return (B)this;
+    }
+
+    /**
+     * Configures a lazily evaluated source of possible values.
+     * The values are never materialized: they are displayed in pages (of {@link #DEFAULT_PAGE_SIZE} values, if no page size has been configured)
+     * and only the values on the current page are formatted.
+     * Validating a value requires iterating over the values in the source.
+     * @param possibleValuesSource a supplier that returns a new stream of the same values each time it is called. If null, the source is removed.
+     */
+    public B withPossibleValuesSource(Supplier<? extends Stream<T>> possibleValuesSource) {
+        this.possibleValuesSource = possibleValuesSource;
+        if(possibleValuesSource != null) {
+            this.possibleValues = null;
+            this.possibleValuesIndex = null;
+        }
+        promptCache = null;
+        return (B)this;
+    }
+
+    /**
+     * Configures the maximum number of possible values displayed at once.
+     * If the number of possible values is greater than the page size, the user can navigate between pages and filter the values by prefix.
+     * @param pageSize the page size, or 0 if all possible values should be displayed at once.
+     */
+    public B withPageSize(int pageSize) {
+        if(pageSize < 0) throw new IllegalArgumentException("pageSize = " + pageSize);
+        this.pageSize = pageSize;
+        promptCache = null;
         return (B)this;
     }
 
     public B withNumberedPossibleValues(boolean numbered) {
         this.numberedPossibleValues = numbered;
+        promptCache = null;
         return (B)this;
     }
 
     public B withInputMasking(boolean inputMasking) {
         this.inputMasking = inputMasking;
+        promptCache = null;
         return (B)this;
     }
 
     public B withInputTrimming(boolean inputTrimming) {
         this.inputTrimming = inputTrimming;
+        promptCache = null;
         return (B)this;
     }
 
     public B withPropertyName(String propertyName) {
         this.propertyName = "".equals(propertyName) ? null : propertyName;
+        promptCache = null;
         return (B)this;
     }
 
     public B withValueFormatter(Function<T, String> valueFormatter) {
         this.valueFormatter = valueFormatter;
+        promptCache = null;
         return (B)this;
     }
 
     public B withErrorMessageProvider(ErrorMessageProvider errorMessageProvider) {
         this.errorMessageProvider = errorMessageProvider;
+        promptCache = null;
+        return (B)this;
+    }
+
+    /**
+     * Sets the executor used by the <tt>readAsync</tt> methods of this reader.
+     * @param executor the executor to be used. If null, the executor of the {@link TextIO} that created this reader will be used.
+     */
+    public B withExecutor(Executor executor) {
+        this.executorSupplier = (executor != null) ? () -> executor : TextIO::getDefaultExecutor;
+        return (B)this;
+    }
+
+    /**
+     * Sets the priority of the reads performed by this reader.
+     * The priority is used if the TextIO that created this reader has a {@link PromptScheduler} with the {@link PromptScheduler.Policy#PRIORITY} policy.
+     * Higher values are served first.
+     */
+    public B withPriority(int priority) {
+        this.priority = priority;
         return (B)this;
     }
 
@@ -206,43 +301,353 @@ public abstract class InputReader<T, B extends InputReader<T, B>> {
      * @return the value of type T parsed from the input string
      */
     public T read(List<String> prompt) {
+        return read(prompt, null);
+    }
+
+    /**
+     * Reads a value of type T, waiting at most for the specified duration.
+     * @see #read(List, Duration)
+     */
+    public T read(Duration timeout, String... prompt) {
+        return read(Arrays.asList(prompt), timeout);
+    }
+
+    /**
+     * Reads a value of type T, waiting at most for the specified duration.
+     * The timeout applies to the entire read operation, including the retries that follow invalid input strings.
+     * <br>The read can be cancelled from another thread by calling {@link TextTerminal#cancelRead()}.
+     * Whether reads can be timed out and cancelled depends on the {@link TextTerminal} implementation.
+     * <br>If the TextIO that created this reader has a {@link PromptScheduler}, the time spent waiting for the terminal also counts towards the timeout.
+     * @param prompt the list of messages to be displayed for prompting the user to enter the value
+     * @param timeout the maximum time to wait for a valid input string. If null, there is no time limit.
+     * @return the value of type T parsed from the input string or, if the timeout elapsed, the default value.
+     * @throws ReadTimeoutException if the timeout elapsed and no default value is configured
+     * @throws ReadCancelledException if the read has been cancelled
+     */
+    public T read(List<String> prompt, Duration timeout) {
+        return read(prompt, timeout, null);
+    }
+
+    /**
+     * @param token the token of an asynchronous read, or null for a synchronous read.
+     * With a token, the terminal is always read by {@link TextTerminal#read(boolean, Duration, ReadToken)},
+     * which is able to honour a cancellation of the token even if there is no time limit,
+     * and nothing is read if the token has been cancelled before the terminal has been acquired.
+     */
+    private T read(List<String> prompt, Duration timeout, ReadToken token) {
         checkConfiguration();
+        long deadline = (timeout == null) ? 0 : System.nanoTime() + timeout.toNanos();
+        PromptScheduler scheduler = promptSchedulerSupplier.get();
+        if(scheduler == null) return readValue(prompt, timeout, deadline, token);
+        try {
+            scheduler.acquire(priority, timeout, token);
+        } catch (ReadTimeoutException e) {
+            if(defaultValue != null) return defaultValue;
+            throw e;
+        }
+        try {
+            return readValue(prompt, timeout, deadline, token);
+        } finally {
+            scheduler.release();
+        }
+    }
+
+    private T readValue(List<String> prompt, Duration timeout, long deadline, ReadToken token) {
         TextTerminal textTerminal = textTerminalSupplier.get();
+        PossibleValuesPager<T> pager = createPager();
         while(true) {
-            printPrompt(prompt, textTerminal, possibleValues);
-            String sVal = textTerminal.read(inputMasking);
+            if(token != null && token.isCancelled()) throw new ReadCancelledException("read cancelled");
+            if(pager == null) {
+                printPrompt(prompt, textTerminal, possibleValues);
+            } else {
+                printPromptPage(prompt, textTerminal, pager);
+            }
+            String sVal;
+            if(timeout == null && token == null) {
+                sVal = textTerminal.read(inputMasking);
+            } else {
+                try {
+                    Duration remaining = (timeout == null) ? null : Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+                    sVal = (token == null) ? textTerminal.read(inputMasking, remaining) : textTerminal.read(inputMasking, remaining, token);
+                } catch (ReadTimeoutException e) {
+                    if(defaultValue != null) return defaultValue;
+                    throw e;
+                }
+            }
             if(sVal != null && inputTrimming) sVal = sVal.trim();
             if(sVal == null || sVal.isEmpty()) {
                 if(defaultValue != null) return defaultValue;
             }
-            if(possibleValues == null || !numberedPossibleValues) {
-                ParseResult<T> result = parse(sVal);
-                List<String> errMessages = result.getErrorMessages();
-                if(errMessages == null) {
-                    if(possibleValues == null || possibleValues.contains(result.getValue())) {
-                        return result.getValue();
-                    }
-                    textTerminal.print(getDefaultErrorMessage());
-                    textTerminal.println(" You must enter one of the displayed values.");
-                    textTerminal.println( );
+            ParseResult<T> result = parseAndCheck(sVal);
+            List<String> errMessages = result.getErrorMessages();
+            if(errMessages == null) return result.getValue();
+            if(pager != null && pager.handleCommand(sVal)) continue;
+            textTerminal.println(errMessages);
+            textTerminal.println();
+        }
+    }
+
+    /**
+     * Reads a value of type T asynchronously.
+     * @see #readAsync(List, Duration)
+     */
+    public CompletableFuture<T> readAsync(String... prompt) {
+        return readAsync(Arrays.asList(prompt), null);
+    }
+
+    /**
+     * Reads a value of type T asynchronously.
+     * @see #readAsync(List, Duration)
+     */
+    public CompletableFuture<T> readAsync(List<String> prompt) {
+        return readAsync(prompt, null);
+    }
+
+    /**
+     * Reads a value of type T asynchronously, waiting at most for the specified duration.
+     * The complete prompt/parse/retry loop of {@link #read(List, Duration)} runs in a task submitted to the executor
+     * of the {@link TextIO} that created this reader (see {@link TextIO#setExecutor(Executor)} and {@link #withExecutor(Executor)}).
+     * <br>Cancelling the returned future also cancels the pending terminal read, if the task has already started.
+     * The terminal is always read by {@link TextTerminal#read(boolean, Duration, ReadToken)}, even without a timeout,
+     * so that a cancelled read does not keep waiting and does not consume the next input line,
+     * while the reads of other callers are not affected.
+     * This works only if the terminal supports cancellation (for example, {@link org.beryx.textio.system.SystemTextTerminal}
+     * or {@link org.beryx.textio.console.ConsoleTextTerminal} without input masking).
+     * <br>Cancelling the future fails if the task has already read an input line and is parsing it.
+     * In this case, the future completes with the value parsed or, if the input is invalid, with a {@link ReadCancelledException}.
+     * @param prompt the list of messages to be displayed for prompting the user to enter the value
+     * @param timeout the maximum time to wait for a valid input string. If null, there is no time limit.
+     * @return a future that completes with the value read or exceptionally with the exception thrown by {@link #read(List, Duration)},
+     * for example with a {@link java.util.NoSuchElementException} if the end of the input has been reached.
+     */
+    public CompletableFuture<T> readAsync(List<String> prompt, Duration timeout) {
+        TextTerminal textTerminal = textTerminalSupplier.get();
+        AsyncRead<T> future = new AsyncRead<>();
+        executorSupplier.get().execute(() -> {
+            if(!future.start()) return;
+            try {
+                future.complete(read(prompt, timeout, future.token));
+            } catch (Throwable t) {
+                future.fail(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * A future that cancels the pending read when it is cancelled after its task has started.
+     * If the task is still waiting for the terminal, only the wait is cancelled.
+     * The terminal read is cancelled through the {@link ReadToken} of the task, so that the read of another thread is never cancelled.
+     * A task that acquires the terminal after its future has been cancelled gives it up without reading.
+     */
+    private static class AsyncRead<T> extends CompletableFuture<T> {
+        final ReadToken token = new ReadToken();
+
+        /** Returns false if the future has been cancelled before its task started. */
+        boolean start() {
+            return !isDone();
+        }
+
+        /** Fails if an input line has already been consumed on behalf of this future, because the cancellation came too late for it. */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if(isDone() || !token.cancel()) return false;
+            // The task may have already reported the cancellation of its read.
+            super.cancel(mayInterruptIfRunning);
+            return isCancelled();
+        }
+
+        /** Completes this future with the exception thrown by its task. A read aborted by the cancellation of this future cancels it. */
+        void fail(Throwable t) {
+            if(t instanceof ReadCancelledException && token.isCancelled()) {
+                super.cancel(false);
+            } else {
+                completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * Returns a publisher of the values read until the end of the input is reached.
+     * @see #publisher(InvalidInputHandler, List)
+     */
+    public InputPublisher<T> publisher(InvalidInputHandler invalidInputHandler, String... prompt) {
+        return publisher(invalidInputHandler, Arrays.asList(prompt));
+    }
+
+    /**
+     * Returns a publisher of the values read until the end of the input is reached.
+     * The values are read and validated as in {@link #stream(InvalidInputHandler, List)}, but only while the subscriber has outstanding demand.
+     * The reads are performed by the executor of this reader (see {@link #withExecutor(Executor)}).
+     * @param invalidInputHandler the handler of invalid input strings. If null, invalid input strings are silently skipped.
+     * @param prompt the list of messages to be displayed for prompting the user to enter a value. May be null.
+     */
+    public InputPublisher<T> publisher(InvalidInputHandler invalidInputHandler, List<String> prompt) {
+        checkConfiguration();
+        return new InputPublisher<>(token -> stream(invalidInputHandler, prompt, token), () -> executorSupplier.get());
+    }
+
+    /**
+     * Returns a lazily evaluated stream of the values read until the end of the input is reached.
+     * @see #stream(InvalidInputHandler, List)
+     */
+    public Stream<T> stream(InvalidInputHandler invalidInputHandler, String... prompt) {
+        return stream(invalidInputHandler, Arrays.asList(prompt));
+    }
+
+    /**
+     * Returns a lazily evaluated stream of the values read until the end of the input is reached.
+     * The end of the input is signaled by the {@link TextTerminal} by returning null or by throwing a {@link NoSuchElementException}.
+     * <br>The input strings are validated using the same rules as in {@link #read(List)}, but invalid input strings are not retried:
+     * they are passed to the <tt>invalidInputHandler</tt> and skipped.
+     * <br>The prompt is displayed before reading each value only if the terminal is {@link TextTerminal#isInteractive() interactive}.
+     * If the TextIO that created this reader has a {@link PromptScheduler}, the terminal is acquired separately for each value
+     * and it is released before the value is passed to the downstream operations.
+     * @param invalidInputHandler the handler of invalid input strings. If null, invalid input strings are silently skipped.
+     * @param prompt the list of messages to be displayed for prompting the user to enter a value. May be null.
+     */
+    public Stream<T> stream(InvalidInputHandler invalidInputHandler, List<String> prompt) {
+        return stream(invalidInputHandler, prompt, null);
+    }
+
+    /**
+     * @param token the token of the {@link InputPublisher} that consumes the stream, or null.
+     * With a token, the terminal is acquired and read on behalf of the token, so that cancelling the token aborts the pending wait or read.
+     */
+    Stream<T> stream(InvalidInputHandler invalidInputHandler, List<String> prompt, ReadToken token) {
+        checkConfiguration();
+        TextTerminal textTerminal = textTerminalSupplier.get();
+        boolean showPrompt = textTerminal.isInteractive();
+        PossibleValuesPager<T> pager = showPrompt ? createPager() : null;
+        PromptScheduler scheduler = promptSchedulerSupplier.get();
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private boolean endOfInput = false;
+            private T next;
+
+            /** The value is passed to the action after releasing the terminal, so that the downstream operations can read from it. */
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                boolean advanced;
+                if(scheduler == null) {
+                    advanced = advance();
                 } else {
-                    textTerminal.println(errMessages);
-                    textTerminal.println();
+                    scheduler.acquire(priority, null, token);
+                    try {
+                        advanced = advance();
+                    } finally {
+                        scheduler.release();
+                    }
                 }
-            } else {
-                try {
-                    int optIndex = Integer.parseInt(sVal);
-                    if(optIndex > 0 && optIndex <= possibleValues.size()) {
-                        return possibleValues.get(optIndex - 1);
+                if(!advanced) return false;
+                T value = next;
+                next = null;
+                action.accept(value);
+                return true;
+            }
+
+            /** Reads the next valid value into <tt>next</tt>. Returns false at the end of the input. */
+            private boolean advance() {
+                while(!endOfInput) {
+                    if(pager != null) {
+                        printPromptPage(prompt, textTerminal, pager);
+                    } else if(showPrompt) {
+                        printPrompt(prompt, textTerminal, possibleValues);
                     }
-                } catch (NumberFormatException e) {
-                    // Continue the execution. The next statement will print the error message.
+                    String sVal;
+                    try {
+                        sVal = (token == null) ? textTerminal.read(inputMasking) : textTerminal.read(inputMasking, null, token);
+                    } catch (NoSuchElementException e) {
+                        sVal = null;
+                    }
+                    if(sVal == null) {
+                        endOfInput = true;
+                        break;
+                    }
+                    if(inputTrimming) sVal = sVal.trim();
+                    if(sVal.isEmpty() && defaultValue != null) {
+                        next = defaultValue;
+                        return true;
+                    }
+                    ParseResult<T> result = parseAndCheck(sVal);
+                    List<String> errMessages = result.getErrorMessages();
+                    if(errMessages == null) {
+                        next = result.getValue();
+                        return true;
+                    }
+                    if(pager != null && pager.handleCommand(sVal)) continue;
+                    if(invalidInputHandler != null) invalidInputHandler.handleInvalidInput(sVal, errMessages);
                 }
-                textTerminal.print(getDefaultErrorMessage());
-                textTerminal.println(" Enter a value between 1 and " + possibleValues.size() + ".");
-                textTerminal.println();
+                return false;
             }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Parses the input string and checks if the resulting value is among the possible values.
+     * If {@link #numberedPossibleValues} is true, the input string is interpreted as the number of the chosen value.
+     * @return a {@link ParseResult} holding either a valid value or the error messages.
+     */
+    protected ParseResult<T> parseAndCheck(String sVal) {
+        PossibleValuesIndex<T> index = getPossibleValuesIndex();
+        if(index == null && possibleValuesSource == null) return parse(sVal);
+        if(!numberedPossibleValues) {
+            ParseResult<T> result = parse(sVal);
+            if(result.getErrorMessages() != null) return result;
+            if(isPossibleValue(result.getValue())) return result;
+            return new ParseResult<>(null, getDefaultErrorMessage() + " You must enter one of the displayed values.");
+        } else {
+            int count = (index != null) ? index.size() : -1;
+            try {
+                int optIndex = Integer.parseInt(sVal);
+                if(optIndex > 0) {
+                    if(index != null) {
+                        if(optIndex <= count) return new ParseResult<>(index.get(optIndex - 1));
+                    } else {
+                        Iterator<T> it = possibleValuesSource.get().skip(optIndex - 1).iterator();
+                        if(it.hasNext()) return new ParseResult<>(it.next());
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // Continue the execution. The next statement will return the error message.
+            }
+            if(count < 0) count = (int)possibleValuesSource.get().count();
+            return new ParseResult<>(null, getDefaultErrorMessage() + " Enter a value between 1 and " + count + ".");
+        }
+    }
+
+    /** Returns true if possible values are configured, either as a list or as a lazily evaluated source. */
+    protected boolean hasPossibleValues() {
+        return possibleValues != null || possibleValuesSource != null;
+    }
+
+    private boolean isPossibleValue(T value) {
+        PossibleValuesIndex<T> index = getPossibleValuesIndex();
+        if(index != null) return index.contains(value);
+        return possibleValuesSource != null && possibleValuesSource.get().anyMatch(v -> Objects.equals(v, value));
+    }
+
+    /** Returns a pager, if the possible values should be displayed in pages. Otherwise, it returns null. */
+    private PossibleValuesPager<T> createPager() {
+        if(possibleValuesSource != null) {
+            return new PossibleValuesPager<>(null, possibleValuesSource, valueFormatter, (pageSize > 0) ? pageSize : DEFAULT_PAGE_SIZE);
+        }
+        if(possibleValues != null && pageSize > 0 && possibleValues.size() > pageSize) {
+            return new PossibleValuesPager<>(possibleValues, null, valueFormatter, pageSize);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the {@link #possibleValues}, or null if no possible values are configured.
+     * The index is rebuilt if the possibleValues field has been reassigned (for example, by a subclass) or if the size of the list has changed.
+     */
+    PossibleValuesIndex<T> getPossibleValuesIndex() {
+        if(possibleValues == null) return null;
+        if(possibleValuesIndex == null || !possibleValuesIndex.isIndexOf(possibleValues)) {
+            possibleValuesIndex = new PossibleValuesIndex<>(possibleValues);
         }
+        return possibleValuesIndex;
     }
 
     /**
@@ -252,10 +657,15 @@ public abstract class InputReader<T, B extends InputReader<T, B>> {
      */
     public void checkConfiguration() throws java.lang.IllegalArgumentException {
         if(possibleValues != null && defaultValue != null) {
-            if(!possibleValues.contains(defaultValue)) {
+            if(!getPossibleValuesIndex().contains(defaultValue)) {
                 throw new IllegalArgumentException("Invalid default value: " + defaultValue + ". Allowed values: " + possibleValues);
             }
         }
+        if(possibleValuesSource != null && defaultValue != null) {
+            if(!isPossibleValue(defaultValue)) {
+                throw new IllegalArgumentException("Invalid default value: " + defaultValue + ". The value is not provided by the possible values source.");
+            }
+        }
     }
 
     /**
@@ -265,25 +675,108 @@ public abstract class InputReader<T, B extends InputReader<T, B>> {
      * @param options the list of options from which the user can choose a value. May be null.
      */
     protected void printPrompt(List<String> prompt, TextTerminal textTerminal, List<T> options) {
-        textTerminal.print(prompt);
+        PromptCache<T> cache = promptCache;
+        if(cache == null || !cache.isValidFor(this, prompt, options)) {
+            cache = new PromptCache<>(this, prompt, options, compilePrompt(prompt, options));
+            promptCache = cache;
+        }
+        cache.compiledPrompt.print(textTerminal);
+    }
+
+    /**
+     * Renders the prompt text, the default value marker and the formatted options.
+     */
+    private CompiledPrompt compilePrompt(List<String> prompt, List<T> options) {
+        CompiledPrompt.Builder builder = new CompiledPrompt.Builder();
         boolean useColon = false;
         if(prompt != null && !prompt.isEmpty()) {
+            for(int i = 0; i < prompt.size(); i++) {
+                if(i > 0) builder.newLine();
+                builder.append(prompt.get(i));
+            }
             String lastLine = prompt.get(prompt.size() - 1);
             useColon = !lastLine.isEmpty() && Character.isJavaIdentifierPart(lastLine.charAt(lastLine.length() - 1));
         }
         if(options == null) {
-            if(defaultValue != null) textTerminal.print(" [" + defaultValue + "]");
-            textTerminal.print(useColon ? ": " : " ");
+            if(defaultValue != null) builder.append(" [" + defaultValue + "]");
+            builder.append(useColon ? ": " : " ");
         } else {
-            textTerminal.println(useColon ? ":" : "");
+            builder.append(useColon ? ":" : "").newLine();
             for(int i = 0; i < options.size(); i++) {
                 T option = options.get(i);
                 boolean isDefault = (defaultValue != null) && defaultValue.equals(option);
-                textTerminal.println((isDefault ? "* ": "  ")
-                        + (numberedPossibleValues ? ((i + 1) + ": ") : "")
-                        + valueFormatter.apply(option));
+                builder.append(isDefault ? "* ": "  ");
+                if(numberedPossibleValues) builder.append((i + 1) + ": ");
+                builder.append(valueFormatter.apply(option)).newLine();
             }
-            textTerminal.print("Enter your choice: ");
+            builder.append("Enter your choice: ");
+        }
+        return builder.build();
+    }
+
+    /**
+     * A rendered prompt, together with the configuration used to render it.
+     * Besides being cleared by the <tt>with*</tt> methods, the cache is also checked against the current configuration,
+     * because subclasses may assign the protected fields directly.
+     */
+    private static class PromptCache<T> {
+        final List<String> prompt;
+        final List<T> options;
+        final int optionCount;
+        final T defaultValue;
+        final boolean numbered;
+        final Function<T, String> valueFormatter;
+        final CompiledPrompt compiledPrompt;
+
+        PromptCache(InputReader<T, ?> reader, List<String> prompt, List<T> options, CompiledPrompt compiledPrompt) {
+            this.prompt = (prompt == null) ? null : new ArrayList<>(prompt);
+            this.options = options;
+            this.optionCount = (options == null) ? 0 : options.size();
+            this.defaultValue = reader.defaultValue;
+            this.numbered = reader.numberedPossibleValues;
+            this.valueFormatter = reader.valueFormatter;
+            this.compiledPrompt = compiledPrompt;
+        }
+
+        boolean isValidFor(InputReader<T, ?> reader, List<String> prompt, List<T> options) {
+            return options == this.options
+                    && (options == null || options.size() == optionCount)
+                    && reader.defaultValue == defaultValue
+                    && reader.numberedPossibleValues == numbered
+                    && reader.valueFormatter == valueFormatter
+                    && Objects.equals(prompt, this.prompt);
+        }
+    }
+
+    /**
+     * Displays a prompt inviting the user to choose a value from the current page of possible values.
+     * It also displays the commands available for navigating between pages.
+     */
+    private void printPromptPage(List<String> prompt, TextTerminal textTerminal, PossibleValuesPager<T> pager) {
+        textTerminal.print(prompt);
+        boolean useColon = false;
+        if(prompt != null && !prompt.isEmpty()) {
+            String lastLine = prompt.get(prompt.size() - 1);
+            useColon = !lastLine.isEmpty() && Character.isJavaIdentifierPart(lastLine.charAt(lastLine.length() - 1));
+        }
+        textTerminal.println(useColon ? ":" : "");
+        List<PossibleValuesPager.Entry<T>> entries = pager.getCurrentPage();
+        if(entries.isEmpty() && pager.getFilter() != null) {
+            textTerminal.println("  No values starting with '" + pager.getFilter() + "'.");
+        }
+        for(PossibleValuesPager.Entry<T> entry : entries) {
+            boolean isDefault = (defaultValue != null) && defaultValue.equals(entry.value);
+            textTerminal.println((isDefault ? "* ": "  ")
+                    + (numberedPossibleValues ? (entry.number + ": ") : "")
+                    + entry.text);
+        }
+        if(pager.isMultiPage()) {
+            textTerminal.println("Page " + pager.getPageNumber()
+                    + ((pager.getFilter() != null) ? (" of the values starting with '" + pager.getFilter() + "'") : "")
+                    + ". Enter " + PossibleValuesPager.NEXT_PAGE_COMMAND + " for the next page, "
+                    + PossibleValuesPager.PREVIOUS_PAGE_COMMAND + " for the previous page, "
+                    + PossibleValuesPager.FILTER_COMMAND + "text to show only the values starting with text.");
         }
+        textTerminal.print("Enter your choice: ");
     }
 }
@@ -15,14 +15,33 @@
  */
 package org.beryx.textio;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
  * A reader for int values.
  */
-public class IntInputReader extends ComparableInputReader<Integer, IntInputReader> {
+public class IntInputReader extends IntegralInputReader<Integer, IntInputReader> {
     public IntInputReader(Supplier<TextTerminal> textTerminalSupplier) {
-        super(textTerminalSupplier);
+        super(textTerminalSupplier, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Restricts the accepted values to the given ones. The allowed values are not displayed when prompting the user.
+     * @param allowedValues the allowed values. If empty, all values in the configured range are allowed.
+     */
+    public IntInputReader withAllowedValues(int... allowedValues) {
+        return withAllowedValueSet((allowedValues.length == 0) ? null : LongHashSet.of(allowedValues));
+    }
+
+    /** Reads an int value. This convenience method unboxes the value returned by {@link #read(String...)}. */
+    public int readInt(String... prompt) {
+        return read(prompt);
+    }
+
+    /** Reads an int value. This convenience method unboxes the value returned by {@link #read(List)}. */
+    public int readInt(List<String> prompt) {
+        return read(prompt);
     }
 
     @Override
@@ -31,12 +50,7 @@ public class IntInputReader extends ComparableInputReader<Integer, IntInputReade
     }
 
     @Override
-    public ParseResult<Integer> parse(String s) {
-        try {
-            Integer val = Integer.parseInt(s);
-            return isInRange(val) ? new ParseResult<>(val) : new ParseResult<>(val, getErrorMessage(s));
-        } catch (NumberFormatException e) {
-            return new ParseResult<>(null, getErrorMessage(s));
-        }
+    protected Integer valueOf(long val) {
+        return (int)val;
     }
 }
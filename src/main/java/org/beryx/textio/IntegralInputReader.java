@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A reader for integral values, which can be restricted to a set of allowed values.
+ * <br>Unlike the {@link #possibleValues}, the allowed values are not displayed when prompting the user.
+ * They are stored in a hash set of primitive values, which allows checking in constant time and without boxing if a value is allowed.
+ * This is useful when validating the input against large allow-lists.
+ */
+public abstract class IntegralInputReader<T extends Number & Comparable<T>, B extends IntegralInputReader<T, B>> extends ComparableInputReader<T, B> {
+    private final long typeMin;
+    private final long typeMax;
+    private LongHashSet allowedValues;
+
+    /**
+     * @param typeMin the lowest value of the type T
+     * @param typeMax the highest value of the type T
+     */
+    protected IntegralInputReader(Supplier<TextTerminal> textTerminalSupplier, long typeMin, long typeMax) {
+        super(textTerminalSupplier);
+        this.typeMin = typeMin;
+        this.typeMax = typeMax;
+    }
+
+    /** Converts a value that lies between the lowest and the highest value of the type to T. */
+    protected abstract T valueOf(long val);
+
+    /** @param allowedValues the allowed values, or null if all values in the configured range are allowed. */
+    B withAllowedValueSet(LongHashSet allowedValues) {
+        this.allowedValues = allowedValues;
+        return (B)this;
+    }
+
+    /** Returns true if no allowed values have been configured or if val is among the allowed values. */
+    public boolean isAllowed(long val) {
+        return allowedValues == null || allowedValues.contains(val);
+    }
+
+    @Override
+    protected List<String> getDefaultErrorMessage(String s) {
+        List<String> errList = super.getDefaultErrorMessage(s);
+        if(allowedValues != null) errList.add("The value must be one of the allowed values.");
+        return errList;
+    }
+
+    /** In addition to the checks performed by {@link ComparableInputReader#checkConfiguration()}, it checks if the defaultValue is allowed. */
+    @Override
+    public void checkConfiguration() throws IllegalArgumentException {
+        super.checkConfiguration();
+        if(defaultValue != null && !isAllowed(defaultValue.longValue())) throw new IllegalArgumentException("Default value not allowed: " + defaultValue);
+    }
+
+    @Override
+    public ParseResult<T> parse(String s) {
+        NumberParser numberParser = new NumberParser();
+        int status = numberParser.parseInteger(s, typeMin, typeMax,
+                (minVal == null) ? typeMin : minVal.longValue(), (maxVal == null) ? typeMax : maxVal.longValue());
+        if(status == NumberParser.INVALID_FORMAT) return new ParseResult<>(null, getErrorMessage(s));
+        long val = numberParser.getLongValue();
+        if(status == NumberParser.VALID && !isAllowed(val)) status = NumberParser.OUT_OF_RANGE;
+        return (status == NumberParser.VALID) ? new ParseResult<>(valueOf(val)) : new ParseResult<>(valueOf(val), getErrorMessage(s));
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+/**
+ * Helper methods for detecting line separators without using regular expressions.
+ */
+class LineSeparators {
+    private LineSeparators() {}
+
+    /**
+     * Returns true if the character is one of the single-character line separators matched by the <tt>\R</tt> regex construct.
+     * The two-character sequence <tt>\r\n</tt> should be handled by the caller.
+     */
+    static boolean isLineSeparator(char ch) {
+        switch(ch) {
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+/**
+ * A set of primitive long values, implemented as an open-addressing hash table with linear probing.
+ * It is used for checking in constant time and without boxing if a value is among the allowed ones.
+ * <br>The set is populated at construction time and it is not modified afterwards.
+ */
+class LongHashSet {
+    private static final long EMPTY = 0L;
+
+    private final long[] table;
+    private final int mask;
+    private final boolean containsEmptyKey;
+    private final int size;
+
+    LongHashSet(long[] values) {
+        int capacity = Integer.highestOneBit(Math.max(4, values.length * 2 - 1)) << 1;
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+        boolean hasEmptyKey = false;
+        int count = 0;
+        for(long val : values) {
+            if(val == EMPTY) {
+                if(!hasEmptyKey) count++;
+                hasEmptyKey = true;
+            } else if(insert(val)) {
+                count++;
+            }
+        }
+        this.containsEmptyKey = hasEmptyKey;
+        this.size = count;
+    }
+
+    static LongHashSet of(int[] values) {
+        long[] longValues = new long[values.length];
+        for(int i = 0; i < values.length; i++) longValues[i] = values[i];
+        return new LongHashSet(longValues);
+    }
+
+    boolean contains(long val) {
+        if(val == EMPTY) return containsEmptyKey;
+        int pos = hash(val) & mask;
+        while(true) {
+            long entry = table[pos];
+            if(entry == val) return true;
+            if(entry == EMPTY) return false;
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean insert(long val) {
+        int pos = hash(val) & mask;
+        while(true) {
+            long entry = table[pos];
+            if(entry == val) return false;
+            if(entry == EMPTY) {
+                table[pos] = val;
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    private static int hash(long val) {
+        long h = val * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
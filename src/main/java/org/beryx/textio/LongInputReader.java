@@ -15,14 +15,33 @@
  */
 package org.beryx.textio;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
  * A reader for long values.
  */
-public class LongInputReader extends ComparableInputReader<Long, LongInputReader> {
+public class LongInputReader extends IntegralInputReader<Long, LongInputReader> {
     public LongInputReader(Supplier<TextTerminal> textTerminalSupplier) {
-        super(textTerminalSupplier);
+        super(textTerminalSupplier, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Restricts the accepted values to the given ones. The allowed values are not displayed when prompting the user.
+     * @param allowedValues the allowed values. If empty, all values in the configured range are allowed.
+     */
+    public LongInputReader withAllowedValues(long... allowedValues) {
+        return withAllowedValueSet((allowedValues.length == 0) ? null : new LongHashSet(allowedValues));
+    }
+
+    /** Reads a long value. This convenience method unboxes the value returned by {@link #read(String...)}. */
+    public long readLong(String... prompt) {
+        return read(prompt);
+    }
+
+    /** Reads a long value. This convenience method unboxes the value returned by {@link #read(List)}. */
+    public long readLong(List<String> prompt) {
+        return read(prompt);
     }
 
     @Override
@@ -31,12 +50,7 @@ public class LongInputReader extends ComparableInputReader<Long, LongInputReader
     }
 
     @Override
-    public ParseResult<Long> parse(String s) {
-        try {
-            long val = Long.parseLong(s);
-            return isInRange(val) ? new ParseResult<>(val) : new ParseResult<>(val, getErrorMessage(s));
-        } catch (NumberFormatException e) {
-            return new ParseResult<>(null, getErrorMessage(s));
-        }
+    protected Long valueOf(long val) {
+        return val;
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+/**
+ * Parser used by the numeric {@link ComparableInputReader}s.
+ * It reports invalid input through a status code instead of throwing a {@link NumberFormatException}
+ * and checks the permitted range in the same pass.
+ * <br>The accepted formats are the ones accepted by {@link Long#parseLong(String)} and {@link Double#parseDouble(String)}.
+ * <br>An instance holds the result of a single parse operation. Instances of this class are not thread-safe,
+ * therefore the readers create a new instance for each call of {@link InputReader#parse(String)}, which can be performed concurrently.
+ */
+class NumberParser {
+    /** The input is a valid number in the permitted range. */
+    static final int VALID = 0;
+    /** The input is not a number or it does not fit in the target type. */
+    static final int INVALID_FORMAT = 1;
+    /** The input is a valid number, but not in the permitted range. The parsed value is available. */
+    static final int OUT_OF_RANGE = 2;
+
+    private long longValue;
+    private double doubleValue;
+
+    /** Returns the value parsed by the last successful call of {@link #parseInteger(CharSequence, long, long, long, long)}. */
+    long getLongValue() {
+        return longValue;
+    }
+
+    /** Returns the value parsed by the last successful call of {@link #parseDouble(CharSequence, double, double)}. */
+    double getDoubleValue() {
+        return doubleValue;
+    }
+
+    /**
+     * Parses a decimal integer.
+     * @param s the input. May be null.
+     * @param typeMin the minimum value representable by the target type (for example, {@link Integer#MIN_VALUE})
+     * @param typeMax the maximum value representable by the target type (for example, {@link Integer#MAX_VALUE})
+     * @param minVal the minimum permitted value
+     * @param maxVal the maximum permitted value
+     * @return one of {@link #VALID}, {@link #INVALID_FORMAT}, {@link #OUT_OF_RANGE}
+     */
+    int parseInteger(CharSequence s, long typeMin, long typeMax, long minVal, long maxVal) {
+        if(s == null) return INVALID_FORMAT;
+        int len = s.length();
+        if(len == 0) return INVALID_FORMAT;
+        int pos = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if(first == '-' || first == '+') {
+            if(len == 1) return INVALID_FORMAT;
+            negative = (first == '-');
+            pos++;
+        }
+        // Accumulate negatively, in order to be able to represent typeMin.
+        long limit = negative ? typeMin : -typeMax;
+        long multMin = limit / 10;
+        long result = 0;
+        while(pos < len) {
+            char ch = s.charAt(pos++);
+            int digit = isAsciiDigit(ch) ? (ch - '0') : Character.digit(ch, 10);
+            if(digit < 0 || result < multMin) return INVALID_FORMAT;
+            result *= 10;
+            if(result < limit + digit) return INVALID_FORMAT;
+            result -= digit;
+        }
+        longValue = negative ? result : -result;
+        return (longValue >= minVal && longValue <= maxVal) ? VALID : OUT_OF_RANGE;
+    }
+
+    /**
+     * Parses a floating-point number.
+     * Plain decimal numbers are validated without throwing exceptions.
+     * Less common formats (hexadecimal floating-point literals, <tt>NaN</tt>, <tt>Infinity</tt>, surrounding whitespace)
+     * are delegated to {@link Double#parseDouble(String)}.
+     * @param s the input. May be null.
+     * @param minVal the minimum permitted value
+     * @param maxVal the maximum permitted value
+     * @return one of {@link #VALID}, {@link #INVALID_FORMAT}, {@link #OUT_OF_RANGE}
+     */
+    int parseDouble(CharSequence s, double minVal, double maxVal) {
+        if(s == null) return INVALID_FORMAT;
+        if(isDecimal(s)) {
+            doubleValue = Double.parseDouble(s.toString());
+        } else {
+            if(!mayBeSpecialDouble(s)) return INVALID_FORMAT;
+            try {
+                doubleValue = Double.parseDouble(s.toString());
+            } catch (NumberFormatException e) {
+                return INVALID_FORMAT;
+            }
+        }
+        return (Double.compare(minVal, doubleValue) <= 0 && Double.compare(maxVal, doubleValue) >= 0) ? VALID : OUT_OF_RANGE;
+    }
+
+    /** Returns true if s matches <tt>[+-]?(digits[.digits?]|.digits)([eE][+-]?digits)?[fFdD]?</tt> */
+    private static boolean isDecimal(CharSequence s) {
+        int len = s.length();
+        int pos = 0;
+        if(pos < len && (s.charAt(pos) == '+' || s.charAt(pos) == '-')) pos++;
+        int intDigits = 0;
+        while(pos < len && isAsciiDigit(s.charAt(pos))) { pos++; intDigits++; }
+        int fractionDigits = 0;
+        if(pos < len && s.charAt(pos) == '.') {
+            pos++;
+            while(pos < len && isAsciiDigit(s.charAt(pos))) { pos++; fractionDigits++; }
+        }
+        if(intDigits == 0 && fractionDigits == 0) return false;
+        if(pos < len && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+            pos++;
+            if(pos < len && (s.charAt(pos) == '+' || s.charAt(pos) == '-')) pos++;
+            int expDigits = 0;
+            while(pos < len && isAsciiDigit(s.charAt(pos))) { pos++; expDigits++; }
+            if(expDigits == 0) return false;
+        }
+        if(pos < len && "fFdD".indexOf(s.charAt(pos)) >= 0) pos++;
+        return pos == len;
+    }
+
+    /** Returns false if s certainly cannot be parsed by {@link Double#parseDouble(String)}, given that {@link #isDecimal(CharSequence)} is false. */
+    private static boolean mayBeSpecialDouble(CharSequence s) {
+        int len = s.length();
+        for(int i = 0; i < len; i++) {
+            char ch = s.charAt(i);
+            if(ch <= ' ' || ch == 'x' || ch == 'X' || ch == 'N' || ch == 'I') return true;
+        }
+        return false;
+    }
+
+    private static boolean isAsciiDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An index of the possible values of an {@link InputReader}.
+ * It pairs an array, used for accessing the values by their number, with a hash set, used for constant-time membership checks.
+ * <br>If any of the values has a class that does not override {@link Object#hashCode()},
+ * the hash set is not used and membership is checked by a linear scan based on {@link Object#equals(Object)},
+ * because such a class may define equality without a matching hash code.
+ * <br>The index is built from a list of possible values and it does not reflect subsequent changes of the list,
+ * except for changes of the list size, which can be detected with {@link #isIndexOf(List)}.
+ */
+class PossibleValuesIndex<T> {
+    private final List<T> source;
+    private final Object[] values;
+    private final Set<Object> valueSet;
+
+    PossibleValuesIndex(List<T> source) {
+        this.source = source;
+        this.values = source.toArray();
+        this.valueSet = hasHashCodes(values) ? new HashSet<>(Arrays.asList(values)) : null;
+    }
+
+    private static boolean hasHashCodes(Object[] values) {
+        Set<Class<?>> checkedClasses = new HashSet<>();
+        for(Object value : values) {
+            if(value == null) continue;
+            Class<?> cls = value.getClass();
+            if(checkedClasses.add(cls) && !overridesHashCode(cls)) return false;
+        }
+        return true;
+    }
+
+    private static boolean overridesHashCode(Class<?> cls) {
+        try {
+            return cls.getMethod("hashCode").getDeclaringClass() != Object.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** Returns true if this index has been built from the given list and the size of the list has not changed in the meantime. */
+    boolean isIndexOf(List<T> list) {
+        return list == source && list.size() == values.length;
+    }
+
+    boolean contains(Object value) {
+        if(valueSet != null) return valueSet.contains(value);
+        for(Object v : values) {
+            if(Objects.equals(value, v)) return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return (T)values[index];
+    }
+
+    int size() {
+        return values.length;
+    }
+}
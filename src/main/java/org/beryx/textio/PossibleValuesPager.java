@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Keeps track of the page and of the prefix filter used when displaying the possible values of an {@link InputReader} in pages.
+ * <br>Only the values on the current page are formatted. Without a filter, the values preceding the current page are skipped without being formatted.
+ * With a filter, the values are formatted until the page is filled.
+ * <br>The user navigates between pages by entering one of the following commands:
+ * <ul>
+ *     <li>{@value #NEXT_PAGE_COMMAND} - display the next page</li>
+ *     <li>{@value #PREVIOUS_PAGE_COMMAND} - display the previous page</li>
+ *     <li>{@value #FILTER_COMMAND}<i>text</i> - display only the values whose formatted representation starts with <i>text</i> (case insensitive)</li>
+ *     <li>{@value #FILTER_COMMAND} - remove the filter</li>
+ * </ul>
+ * An input is interpreted as a command only if it is not a valid value, so possible values that look like commands can still be chosen.
+ */
+class PossibleValuesPager<T> {
+    static final String NEXT_PAGE_COMMAND = ">";
+    static final String PREVIOUS_PAGE_COMMAND = "<";
+    static final String FILTER_COMMAND = "/";
+
+    /** A possible value displayed on the current page. */
+    static class Entry<T> {
+        /** The 1-based position of the value in the complete list of possible values */
+        final int number;
+        final T value;
+        final String text;
+
+        Entry(int number, T value, String text) {
+            this.number = number;
+            this.value = value;
+            this.text = text;
+        }
+    }
+
+    private final List<T> values;
+    private final Supplier<? extends Stream<T>> source;
+    private final Function<T, String> valueFormatter;
+    private final int pageSize;
+
+    private int page = 0;
+    private String filter = null;
+    private boolean hasNextPage = false;
+
+    /**
+     * @param values the list of possible values. If null, the values are taken from the <tt>source</tt>.
+     * @param source the lazily evaluated source of possible values. Used only if <tt>values</tt> is null.
+     */
+    PossibleValuesPager(List<T> values, Supplier<? extends Stream<T>> source, Function<T, String> valueFormatter, int pageSize) {
+        if(pageSize <= 0) throw new IllegalArgumentException("pageSize = " + pageSize);
+        this.values = values;
+        this.source = source;
+        this.valueFormatter = valueFormatter;
+        this.pageSize = pageSize;
+    }
+
+    /** Returns the 1-based number of the current page. */
+    int getPageNumber() {
+        return page + 1;
+    }
+
+    /** Returns the active prefix filter, or null if no filter is active. */
+    String getFilter() {
+        return filter;
+    }
+
+    /** Returns true if the last call of {@link #getCurrentPage()} detected that further values are available. */
+    boolean hasNextPage() {
+        return hasNextPage;
+    }
+
+    /** Returns true if the user has to choose between more values than the ones displayed on the current page. */
+    boolean isMultiPage() {
+        return page > 0 || hasNextPage || filter != null;
+    }
+
+    /**
+     * Interprets the input as a navigation command, if possible.
+     * The caller should invoke this method only after checking that the input is not a valid value.
+     * @return true, if the input was a navigation command.
+     */
+    boolean handleCommand(String input) {
+        if(input == null) return false;
+        if(NEXT_PAGE_COMMAND.equals(input)) {
+            if(hasNextPage) page++;
+            return true;
+        }
+        if(PREVIOUS_PAGE_COMMAND.equals(input)) {
+            if(page > 0) page--;
+            return true;
+        }
+        if(input.startsWith(FILTER_COMMAND)) {
+            String prefix = input.substring(FILTER_COMMAND.length());
+            filter = prefix.isEmpty() ? null : prefix;
+            page = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /** Retrieves and formats the values on the current page. */
+    List<Entry<T>> getCurrentPage() {
+        List<Entry<T>> entries = new ArrayList<>(pageSize);
+        int first = page * pageSize;
+        hasNextPage = false;
+        if(filter == null && values != null) {
+            int end = Math.min(values.size(), first + pageSize);
+            for(int i = first; i < end; i++) {
+                T value = values.get(i);
+                entries.add(new Entry<>(i + 1, value, valueFormatter.apply(value)));
+            }
+            hasNextPage = values.size() > end;
+            return entries;
+        }
+        Iterator<T> it = (values != null) ? values.iterator() : source.get().iterator();
+        int number = 0;
+        int matches = 0;
+        while(it.hasNext()) {
+            T value = it.next();
+            number++;
+            String text = null;
+            if(filter != null) {
+                text = valueFormatter.apply(value);
+                if(!text.regionMatches(true, 0, filter, 0, filter.length())) continue;
+            }
+            if(++matches <= first) continue;
+            if(entries.size() == pageSize) {
+                hasNextPage = true;
+                break;
+            }
+            entries.add(new Entry<>(number, value, (text != null) ? text : valueFormatter.apply(value)));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Grants the {@link TextTerminal} of a {@link TextIO} to one read operation at a time.
+ * <br>The InputReaders created by a TextIO acquire the terminal before printing the prompt and release it after the value has been read.
+ * Threads that cannot acquire the terminal immediately are queued and parked until the terminal is granted to them.
+ * The order in which the queued reads are served is given by the {@link Policy}.
+ * <br>The terminal is acquired per thread and the acquisition is reentrant.
+ */
+public class PromptScheduler {
+    /** The order in which queued reads are granted the terminal. Reads with the same rank are served in arrival order. */
+    public enum Policy {
+        /** Arrival order. */
+        FIFO,
+        /** Higher {@link InputReader#withPriority(int) priorities} first. */
+        PRIORITY,
+        /** Earliest deadline first. The deadline of a read is given by its timeout. Reads without timeout are served last. */
+        DEADLINE
+    }
+
+    private static class Ticket {
+        final Thread thread;
+        final int priority;
+        final long deadline;
+        final boolean hasDeadline;
+        final long sequence;
+        volatile boolean granted = false;
+        volatile boolean cancelled = false;
+        int holdCount = 1;
+
+        Ticket(Thread thread, int priority, long deadline, boolean hasDeadline, long sequence) {
+            this.thread = thread;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.hasDeadline = hasDeadline;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Policy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final PriorityQueue<Ticket> waiting;
+    private Ticket owner;
+    private long sequence = 0;
+
+    public PromptScheduler(Policy policy) {
+        if(policy == null) throw new IllegalArgumentException("policy is null");
+        this.policy = policy;
+        this.waiting = new PriorityQueue<>(createComparator(policy));
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /** Returns the number of reads waiting for the terminal. */
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires the terminal for the current thread, waiting if another thread holds it.
+     * @see #acquire(int, Duration, ReadToken)
+     */
+    public void acquire(int priority, Duration timeout) {
+        acquire(priority, timeout, null);
+    }
+
+    /**
+     * Acquires the terminal for the current thread on behalf of the given token, waiting if another thread holds it.
+     * A cancellation of the token aborts the wait, even if it arrives before the read is queued.
+     * @param priority the priority of the read. Used only by the {@link Policy#PRIORITY} policy.
+     * @param timeout the maximum time to wait. If null, there is no time limit.
+     *                With the {@link Policy#DEADLINE} policy, the end of this interval is the deadline of the read.
+     * @param token the token of the read, or null
+     * @throws ReadTimeoutException if the timeout elapsed before the terminal has been granted
+     * @throws ReadCancelledException if the token has been cancelled or the wait has been cancelled by {@link #cancelWaiting(Thread)}
+     * @throws ReadInterruptedException if the current thread has been interrupted while waiting
+     */
+    public void acquire(int priority, Duration timeout, ReadToken token) {
+        Thread current = Thread.currentThread();
+        long deadline = (timeout == null) ? 0 : System.nanoTime() + timeout.toNanos();
+        Ticket ticket;
+        lock.lock();
+        try {
+            if(owner != null && owner.thread == current) {
+                owner.holdCount++;
+                return;
+            }
+            ticket = new Ticket(current, priority, deadline, timeout != null, sequence++);
+            if(token != null) {
+                token.register(() -> {
+                    ticket.cancelled = true;
+                    LockSupport.unpark(current);
+                });
+            }
+            if(owner == null && waiting.isEmpty()) {
+                owner = ticket;
+                if(token != null) token.unregister();
+                return;
+            }
+            waiting.add(ticket);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            awaitGrant(ticket, timeout, deadline);
+        } finally {
+            if(token != null) token.unregister();
+        }
+    }
+
+    private void awaitGrant(Ticket ticket, Duration timeout, long deadline) {
+        while(!ticket.granted) {
+            if(ticket.cancelled) {
+                abandon(ticket);
+                throw new ReadCancelledException("read cancelled while waiting for the terminal");
+            }
+            if(Thread.interrupted()) {
+                abandon(ticket);
+                Thread.currentThread().interrupt();
+                throw new ReadInterruptedException("read interrupted while waiting for the terminal", new InterruptedException());
+            }
+            if(timeout != null) {
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    abandon(ticket);
+                    throw new ReadTimeoutException("Terminal not available within " + timeout);
+                }
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * Releases the terminal held by the current thread and grants it to the next queued read, if any.
+     * @throws IllegalStateException if the current thread does not hold the terminal
+     */
+    public void release() {
+        lock.lock();
+        try {
+            if(owner == null || owner.thread != Thread.currentThread()) {
+                throw new IllegalStateException("The terminal is not held by the current thread.");
+            }
+            if(--owner.holdCount > 0) return;
+            grantNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels the wait of the given thread, if it is queued for the terminal.
+     * A thread that is about to be queued is not affected. Use {@link #acquire(int, Duration, ReadToken)} to cancel such a wait.
+     * @return true, if the thread was waiting for the terminal.
+     */
+    public boolean cancelWaiting(Thread thread) {
+        lock.lock();
+        try {
+            for(Ticket ticket : waiting) {
+                if(ticket.thread == thread) {
+                    ticket.cancelled = true;
+                    LockSupport.unpark(thread);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Removes a ticket that gives up waiting. If the terminal has been granted to it in the meantime, the terminal is passed on. */
+    private void abandon(Ticket ticket) {
+        lock.lock();
+        try {
+            if(ticket.granted) {
+                grantNext();
+            } else {
+                waiting.remove(ticket);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void grantNext() {
+        owner = waiting.poll();
+        if(owner != null) {
+            owner.granted = true;
+            LockSupport.unpark(owner.thread);
+        }
+    }
+
+    private static Comparator<Ticket> createComparator(Policy policy) {
+        Comparator<Ticket> arrivalOrder = (t1, t2) -> Long.compare(t1.sequence, t2.sequence);
+        switch(policy) {
+            case PRIORITY:
+                return ((Comparator<Ticket>)(t1, t2) -> Integer.compare(t2.priority, t1.priority)).thenComparing(arrivalOrder);
+            case DEADLINE:
+                return ((Comparator<Ticket>)PromptScheduler::compareDeadlines).thenComparing(arrivalOrder);
+            default:
+                return arrivalOrder;
+        }
+    }
+
+    private static int compareDeadlines(Ticket t1, Ticket t2) {
+        if(t1.hasDeadline != t2.hasDeadline) return t1.hasDeadline ? -1 : 1;
+        if(!t1.hasDeadline) return 0;
+        // Compare the difference, because System.nanoTime() values may overflow.
+        return Long.signum(t1.deadline - t2.deadline);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+/**
+ * Ties cancellations to the reads performed on behalf of one caller, such as an asynchronous read,
+ * so that {@link #cancel()} never affects the reads of other callers.
+ * <br>A terminal reading with a token {@link #register(Runnable) registers} it while waiting for input
+ * and calls {@link #consumeInput()} just before consuming an input line.
+ * A cancellation that arrives while no read with this token is waiting makes the next read with this token fail.
+ * A cancellation that arrives after an input line has been consumed does not affect that line.
+ * <br>Instances of this class are thread-safe.
+ */
+public class ReadToken {
+    // Guarded by this
+    private boolean cancelled = false;
+    private boolean waiting = false;
+    private boolean consumed = false;
+    private Runnable canceller;
+
+    /**
+     * Called by a terminal when it starts waiting for input on behalf of this token.
+     * @param canceller wakes up the waiting thread if this token is cancelled during the wait.
+     *                  May be null, if the waiting thread checks {@link #isCancelled()} periodically.
+     * @throws ReadCancelledException if this token has been cancelled
+     */
+    public synchronized void register(Runnable canceller) {
+        if(cancelled) throw new ReadCancelledException("read cancelled");
+        this.canceller = canceller;
+        this.waiting = true;
+        this.consumed = false;
+    }
+
+    /** Called by a terminal when it stops waiting for input, whether an input line has been consumed or not. */
+    public synchronized void unregister() {
+        canceller = null;
+        waiting = false;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Called by a terminal just before it consumes an input line on behalf of this token.
+     * @return false, if this token has been cancelled. In this case, the input line must not be consumed.
+     */
+    public synchronized boolean consumeInput() {
+        if(cancelled) return false;
+        canceller = null;
+        waiting = false;
+        consumed = true;
+        return true;
+    }
+
+    /**
+     * Cancels the pending read with this token, if any, and all subsequent reads with this token.
+     * @return false, if an input line has already been consumed on behalf of this token and no further read is waiting.
+     * In this case, the cancellation came too late for the consumed line.
+     */
+    public boolean cancel() {
+        Runnable wakeUp;
+        synchronized(this) {
+            cancelled = true;
+            if(!waiting) return !consumed;
+            wakeUp = canceller;
+        }
+        if(wakeUp != null) wakeUp.run();
+        return true;
+    }
+}
@@ -80,7 +80,7 @@ public class StringInputReader extends InputReader<String, StringInputReader> {
     }
 
     private String getValidationError(String s) {
-        if(possibleValues == null) {
+        if(!hasPossibleValues()) {
             int len = (s == null) ? 0 : s.length();
             IntFunction<String> chr = l -> l + " character" + ((l > 1) ? "s." : ".");
             if(minLength > 0 && minLength > len) return "Expected a string with at least " + chr.apply(minLength);
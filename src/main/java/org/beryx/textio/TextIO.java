@@ -15,16 +15,28 @@
  */
 package org.beryx.textio;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * A factory for creating {@link InputReader}s.
- * All InputReaders created by the same TextIO instance share the same {@link TextTerminal}.
+ * All InputReaders created by the same TextIO instance share the same {@link TextTerminal}
+ * and the same {@link Executor} for asynchronous reads (see {@link InputReader#readAsync(String...)}).
  */
 public class TextIO {
+    private static final Logger logger =  LoggerFactory.getLogger(TextIO.class);
+
     private final TextTerminal textTerminal;
     private final Supplier<TextTerminal> textTerminalSupplier;
+    private volatile Executor executor;
+    private volatile PromptScheduler promptScheduler;
 
     public TextIO(TextTerminal textTerminal) {
         this.textTerminal = textTerminal;
@@ -35,35 +47,103 @@ public class TextIO {
         return textTerminal;
     }
 
+    /** Returns the executor used for asynchronous reads. If no executor has been set, the {@link #getDefaultExecutor()} is returned. */
+    public Executor getExecutor() {
+        Executor exec = executor;
+        return (exec != null) ? exec : getDefaultExecutor();
+    }
+
+    /**
+     * Sets the executor used by the asynchronous reads of the InputReaders created by this TextIO instance,
+     * including the already created ones.
+     * @param executor the executor to be used. If null, the {@link #getDefaultExecutor()} will be used.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /** Returns the scheduler that grants the terminal to one read at a time, or null if the reads are not scheduled. */
+    public PromptScheduler getPromptScheduler() {
+        return promptScheduler;
+    }
+
+    /**
+     * Sets the scheduler that grants the terminal to one read at a time.
+     * It applies to all InputReaders created by this TextIO instance, including the already created ones.
+     * By default, no scheduler is used, so that single-threaded applications do not pay for the coordination.
+     * Applications that read concurrently from several threads should set one.
+     * @param promptScheduler the scheduler to be used. If null, concurrent reads are not coordinated.
+     */
+    public void setPromptScheduler(PromptScheduler promptScheduler) {
+        this.promptScheduler = promptScheduler;
+    }
+
+    /**
+     * Returns the executor used for asynchronous reads if no other executor has been configured.
+     * On Java runtimes that support virtual threads, each read runs in a new virtual thread.
+     * Otherwise, the reads run in a cached pool of daemon threads.
+     */
+    public static Executor getDefaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static class DefaultExecutorHolder {
+        static final Executor EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            try {
+                // Executors.newVirtualThreadPerTaskExecutor() is available only on Java 21 and later.
+                Executor exec = (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                logger.debug("Using virtual threads for asynchronous reads.");
+                return exec;
+            } catch (Exception e) {
+                logger.debug("Virtual threads not available. Using a cached thread pool for asynchronous reads.");
+            }
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadFactory threadFactory = r -> {
+                Thread thread = new Thread(r, "textio-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(threadFactory);
+        }
+    }
+
     public void dispose() {
         textTerminal.dispose();
     }
 
     public BooleanInputReader newBooleanInputReader() {
-        return new BooleanInputReader(textTerminalSupplier);
+        return configure(new BooleanInputReader(textTerminalSupplier));
     }
 
     public DoubleInputReader newDoubleInputReader() {
-        return new DoubleInputReader(textTerminalSupplier);
+        return configure(new DoubleInputReader(textTerminalSupplier));
     }
 
     public IntInputReader newIntInputReader() {
-        return new IntInputReader(textTerminalSupplier);
+        return configure(new IntInputReader(textTerminalSupplier));
     }
 
     public LongInputReader newLongInputReader() {
-        return new LongInputReader(textTerminalSupplier);
+        return configure(new LongInputReader(textTerminalSupplier));
     }
 
     public StringInputReader newStringInputReader() {
-        return new StringInputReader(textTerminalSupplier);
+        return configure(new StringInputReader(textTerminalSupplier));
     }
 
     public <T extends Enum<T>> EnumInputReader<T> newEnumInputReader(Class<T> enumClass) {
-        return new EnumInputReader(textTerminalSupplier, enumClass);
+        return configure(new EnumInputReader(textTerminalSupplier, enumClass));
     }
 
     public <T> GenericInputReader<T> newGenericInputReader(Function<String, InputReader.ParseResult<T>> parser) {
-        return new GenericInputReader(textTerminalSupplier, parser);
+        return configure(new GenericInputReader(textTerminalSupplier, parser));
+    }
+
+    private <R extends InputReader<?, ?>> R configure(R reader) {
+        reader.executorSupplier = this::getExecutor;
+        reader.promptSchedulerSupplier = this::getPromptScheduler;
+        return reader;
     }
 }
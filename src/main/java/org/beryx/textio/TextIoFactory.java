@@ -15,14 +15,26 @@
  */
 package org.beryx.textio;
 
+import org.beryx.textio.console.ConsoleTextTerminal;
 import org.beryx.textio.console.ConsoleTextTerminalProvider;
+import org.beryx.textio.nio.NioTextTerminal;
+import org.beryx.textio.swing.SwingTextTerminal;
 import org.beryx.textio.swing.SwingTextTerminalProvider;
+import org.beryx.textio.system.SystemTextTerminal;
 import org.beryx.textio.system.SystemTextTerminalProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.ServiceLoader;
+import java.util.function.Supplier;
 
 /**
  * Provides {@link TextTerminal} and {@link TextIO} implementations.
@@ -30,79 +42,248 @@ import java.util.ServiceLoader;
  * <ol>
  *     <li>If the system property {@value #TEXT_TERMINAL_CLASS_PROPERTY} is defined, then it is
  *         taken to be the fully-qualified name of a concrete {@link TextTerminal} class.
- *         The class is loaded and instantiated. If this process fails, then the next step is executed.</li>
+ *         The class is loaded and instantiated. If this process fails, then the next step is executed.
+ *         The built-in terminals are instantiated directly, without reflection.
+ *         <br>For example, setting this property to <tt>org.beryx.textio.nio.NioTextTerminal</tt> selects
+ *         a {@link org.beryx.textio.nio.NioTextTerminal} with buffered output.</li>
  *     <li>a {@link ServiceLoader} loads the configured {@link TextTerminalProvider}s and searches for the
  *         first one capable to provide a {@link TextTerminal} instance.
- *         If none is found, then the next step is executed.</li>
+ *         If none is found, then the next step is executed.
+ *         <br>The {@link org.beryx.textio.nio.UnixSocketTextTerminalProvider} is registered by default.
+ *         It provides a terminal only if its system property is set.</li>
  *     <li>A default implementation is provided as follows:
  *          <ul>
  *              <li>If {@link System#console()} is not null, a {@link org.beryx.textio.console.ConsoleTextTerminal} is provided.</li>
- *              <li>If the system is not headless, a {@link org.beryx.textio.swing.SwingTextTerminal} is provided.</li>
+ *              <li>If the system is not headless, a {@link org.beryx.textio.swing.SwingTextTerminal} is provided.
+ *                  This step is skipped without loading AWT if <tt>java.awt.headless</tt> is <tt>true</tt>
+ *                  or if the <tt>DISPLAY</tt> variable is not set on a Unix-like system other than macOS.</li>
  *              <li>Otherwise, a {@link org.beryx.textio.system.SystemTextTerminal} is provided</li>
  *          </ul>
  *     </li>
  * </ol>
+ * The discovery is performed only once. The provider or class found is cached and used by {@link #newTextIO()}
+ * and {@link #newTextIoPool(int)} to create further terminals of the same kind.
+ * This is possible only if the terminals of this kind are independent of each other:
+ * <ul>
+ *     <li>a class configured by the {@value #TEXT_TERMINAL_CLASS_PROPERTY} property is assumed to create independent terminals,
+ *     unless it is one of the built-in terminals that use the standard streams or the system console
+ *     ({@link org.beryx.textio.system.SystemTextTerminal}, {@link org.beryx.textio.system.ChannelSystemTextTerminal},
+ *     {@link org.beryx.textio.nio.NioTextTerminal}, {@link org.beryx.textio.console.ConsoleTextTerminal}).</li>
+ *     <li>a provider must declare it through {@link TextTerminalProvider#providesIndependentTerminals()}.
+ *     Among the built-in providers, only the {@link SwingTextTerminalProvider} does so.</li>
+ * </ul>
+ * <br>A TextIO instance can be {@link #bind(TextIO) bound} to the current thread.
+ * While the binding is active, {@link #getTextIO()} and {@link #getTextTerminal()} return the bound instance in this thread.
  */
 public class TextIoFactory {
     private static final Logger logger =  LoggerFactory.getLogger(TextIoFactory.class);
 
     public static final String TEXT_TERMINAL_CLASS_PROPERTY = "org.beryx.textio.TextTerminal";
 
-    private static class Holder {
-        static Holder INSTANCE = new Holder();
+    private static final ThreadLocal<TextIO> boundTextIO = new ThreadLocal<>();
+
+    /** An active binding of a TextIO to the current thread. Closing it restores the previous binding. */
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * The result of the discovery: the first terminal and, if the terminals of its kind are independent of each other,
+     * a factory for further terminals of the same kind.
+     */
+    static class Discovery {
+        /** The built-in terminals whose instances share the standard streams or the system console. */
+        private static final List<String> SHARED_TERMINAL_CLASSES = Arrays.asList(
+                "org.beryx.textio.system.SystemTextTerminal",
+                "org.beryx.textio.system.ChannelSystemTextTerminal",
+                "org.beryx.textio.nio.NioTextTerminal",
+                "org.beryx.textio.console.ConsoleTextTerminal");
 
-        final TextTerminal terminal;
-        final TextIO textIO;
+        final TextTerminal firstTerminal;
+        /** Creates terminals of the same kind as the first one. Null, if these terminals are not independent of each other. */
+        private final Supplier<TextTerminal> terminalFactory;
 
-        private Holder() {
-            TextTerminal t = getTerminalFromProperty();
+        Discovery() {
+            String clsName = System.getProperty(TEXT_TERMINAL_CLASS_PROPERTY, "").trim();
+            Supplier<TextTerminal> factory = getFactoryFromProperty(clsName);
+            TextTerminal t = (factory == null) ? null : factory.get();
+            boolean independent = !SHARED_TERMINAL_CLASSES.contains(clsName);
             if(t == null) {
-                t = getTerminalFromService();
+                factory = null;
+                ServiceLoader<TextTerminalProvider> svcLoader = ServiceLoader.load(TextTerminalProvider.class);
+                Iterator<TextTerminalProvider> it = svcLoader.iterator();
+                while(t == null && it.hasNext()) {
+                    TextTerminalProvider provider = it.next();
+                    t = provider.getTextTerminal();
+                    if(t != null) {
+                        factory = provider::getTextTerminal;
+                        independent = provider.providesIndependentTerminals();
+                    }
+                }
             }
             if(t == null) {
-                t = getDefaultTerminal();
+                for(Supplier<TextTerminalProvider> providerFactory : getDefaultProviderFactories()) {
+                    TextTerminalProvider provider = providerFactory.get();
+                    t = provider.getTextTerminal();
+                    if(t != null) {
+                        factory = provider::getTextTerminal;
+                        independent = provider.providesIndependentTerminals();
+                        break;
+                    }
+                }
             }
-            this.terminal = t;
-            this.textIO = new TextIO(t);
+            this.firstTerminal = t;
+            this.terminalFactory = independent ? factory : null;
         }
 
-        private TextTerminal getTerminalFromProperty() {
-            String clsName = System.getProperty(TEXT_TERMINAL_CLASS_PROPERTY, "").trim();
+        /**
+         * Creates a new terminal of the same kind as the first one.
+         * @throws IllegalStateException if the terminals of this kind are not independent of each other
+         * or if the provider is no longer able to provide a terminal.
+         */
+        TextTerminal newTerminal() {
+            checkIndependentTerminals();
+            TextTerminal terminal = terminalFactory.get();
+            if(terminal == null) throw new IllegalStateException("The provider of " + firstTerminal.getClass().getName() + " did not provide a new terminal.");
+            return terminal;
+        }
+
+        /** @throws IllegalStateException if the terminals of the discovered kind are not independent of each other. */
+        void checkIndependentTerminals() {
+            if(terminalFactory == null) {
+                throw new IllegalStateException("Cannot create further terminals of type " + firstTerminal.getClass().getName()
+                        + ", because they would share their input or output with the global terminal."
+                        + " Use a TextTerminal class or a TextTerminalProvider able to create independent terminals.");
+            }
+        }
+
+        /**
+         * Returns the factories of the default providers, in the order in which they are probed.
+         * The provider classes are referenced only in the lambda bodies, so they are loaded only if they are actually probed.
+         * The Swing provider is skipped if the environment is {@link #isKnownHeadless() known to be headless}.
+         */
+        static List<Supplier<TextTerminalProvider>> getDefaultProviderFactories() {
+            List<Supplier<TextTerminalProvider>> factories = new ArrayList<>(3);
+            factories.add(() -> new ConsoleTextTerminalProvider());
+            if(!isKnownHeadless()) {
+                factories.add(() -> new SwingTextTerminalProvider());
+            }
+            factories.add(() -> new SystemTextTerminalProvider());
+            return factories;
+        }
+
+        /**
+         * Returns a factory for the class configured by the {@value #TEXT_TERMINAL_CLASS_PROPERTY} property, or null if the property is empty.
+         * The built-in terminals are created directly. Other classes are created through a method handle of their no-arg constructor.
+         */
+        private static Supplier<TextTerminal> getFactoryFromProperty(String clsName) {
             if(clsName.isEmpty()) return null;
+            switch(clsName) {
+                case "org.beryx.textio.system.SystemTextTerminal": return () -> new SystemTextTerminal();
+                case "org.beryx.textio.nio.NioTextTerminal": return () -> new NioTextTerminal();
+                case "org.beryx.textio.console.ConsoleTextTerminal": return () -> new ConsoleTextTerminal();
+                case "org.beryx.textio.swing.SwingTextTerminal": return () -> new SwingTextTerminal();
+            }
             try {
-                Class<?> cls = Class.forName(clsName);
-                return (TextTerminal) cls.newInstance();
+                Class<? extends TextTerminal> cls = Class.forName(clsName).asSubclass(TextTerminal.class);
+                MethodHandle constructor = MethodHandles.publicLookup()
+                        .findConstructor(cls, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(TextTerminal.class));
+                return () -> {
+                    try {
+                        return (TextTerminal)constructor.invokeExact();
+                    } catch(Throwable e) {
+                        logger.warn("Unable to create a TextTerminal of type " + clsName);
+                        return null;
+                    }
+                };
             } catch(Exception e) {
                 logger.warn("Unable to create a TextTerminal of type " + clsName);
                 return null;
             }
         }
+    }
 
-        private TextTerminal getTerminalFromService() {
-            ServiceLoader<TextTerminalProvider> svcLoader = ServiceLoader.load(TextTerminalProvider.class);
-            Iterator<TextTerminalProvider> it = svcLoader.iterator();
-            while(it.hasNext()) {
-                TextTerminal t = it.next().getTextTerminal();
-                if(t != null) return t;
-            }
-            return null;
-        }
+    /**
+     * Returns true if the environment is certainly headless. No AWT class is loaded by this check:
+     * it honors the <tt>java.awt.headless</tt> system property and, on Unix-like systems other than macOS,
+     * it considers the environment headless if the <tt>DISPLAY</tt> variable is not set.
+     * <br>If it returns false, the {@link SwingTextTerminalProvider} performs the definitive check.
+     */
+    static boolean isKnownHeadless() {
+        return isKnownHeadless(System.getProperty("java.awt.headless"), System.getProperty("os.name", ""), System.getenv("DISPLAY"));
+    }
 
-        private TextTerminal getDefaultTerminal() {
-            TextTerminal terminal = new ConsoleTextTerminalProvider().getTextTerminal();
-            if(terminal != null) return terminal;
-            terminal = new SwingTextTerminalProvider().getTextTerminal();
-            if(terminal != null) return terminal;
-            terminal = new SystemTextTerminalProvider().getTextTerminal();
-            return terminal;
-        }
+    static boolean isKnownHeadless(String headless, String osName, String display) {
+        if(headless != null) return Boolean.parseBoolean(headless);
+        String os = osName.toLowerCase(Locale.ROOT);
+        if(os.startsWith("windows") || os.startsWith("mac")) return false;
+        return display == null || display.trim().isEmpty();
+    }
+
+    private static class Holder {
+        static final Discovery DISCOVERY = new Discovery();
+        static final TextIO INSTANCE = new TextIO(DISCOVERY.firstTerminal);
     }
 
+    /** Returns the TextTerminal of the TextIO returned by {@link #getTextIO()}. */
     public static TextTerminal getTextTerminal() {
-        return Holder.INSTANCE.terminal;
+        return getTextIO().getTextTerminal();
     }
 
+    /**
+     * Returns the TextIO instance bound to the current thread (see {@link #bind(TextIO)}) or,
+     * if no instance is bound, the global TextIO instance.
+     */
     public static TextIO getTextIO() {
-        return Holder.INSTANCE.textIO;
+        TextIO textIO = boundTextIO.get();
+        return (textIO != null) ? textIO : Holder.INSTANCE;
+    }
+
+    /**
+     * Creates a new TextIO instance with its own TextTerminal, obtained from the cached provider or class.
+     * @throws IllegalStateException if the discovered terminals are not independent of each other
+     * (see the class description).
+     */
+    public static TextIO newTextIO() {
+        return new TextIO(Holder.DISCOVERY.newTerminal());
+    }
+
+    /**
+     * Creates a pool of TextIO instances, whose terminals are obtained from the cached provider or class.
+     * @param maxIdle the maximum number of idle instances kept by the pool
+     * @throws IllegalStateException if the discovered terminals are not independent of each other
+     * (see the class description).
+     */
+    public static TextIoPool newTextIoPool(int maxIdle) {
+        Discovery discovery = Holder.DISCOVERY;
+        discovery.checkIndependentTerminals();
+        return new TextIoPool(discovery::newTerminal, maxIdle);
+    }
+
+    /**
+     * Binds the TextIO instance to the current thread, until the returned binding is closed.
+     * Bindings can be nested and should be used in a try-with-resources statement:
+     * <pre>
+     * try(TextIoFactory.Binding binding = TextIoFactory.bind(sessionTextIO)) {
+     *     ... // TextIoFactory.getTextIO() returns sessionTextIO in this thread
+     * }
+     * </pre>
+     * @throws IllegalStateException if the binding is closed in another thread
+     */
+    public static Binding bind(TextIO textIO) {
+        if(textIO == null) throw new IllegalArgumentException("textIO is null");
+        Thread thread = Thread.currentThread();
+        TextIO previous = boundTextIO.get();
+        boundTextIO.set(textIO);
+        return () -> {
+            if(Thread.currentThread() != thread) throw new IllegalStateException("The binding must be closed by the thread that created it.");
+            if(previous != null) {
+                boundTextIO.set(previous);
+            } else {
+                boundTextIO.remove();
+            }
+        };
     }
 }
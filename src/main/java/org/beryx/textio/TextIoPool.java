@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A pool of TextIO instances, each one with its own {@link TextTerminal}.
+ * <br>{@link #acquire()} returns an idle instance or, if no idle instance is available, creates a new one.
+ * {@link #release(TextIO)} returns the instance to the pool or, if the pool already contains <tt>maxIdle</tt> idle instances,
+ * disposes its terminal.
+ * <br>Before an instance is returned to the pool, it is reset: by default, {@link #resetSettings(TextIO)} is used,
+ * which restores the executor and the prompt scheduler, cancels the pending reads and flushes the output.
+ * The terminal itself is not cleared: the text it displays and the input that has been typed but not yet read are kept.
+ * If the sessions must be isolated from each other, pass a reset function that clears the terminal or rejects the instance.
+ * <br>Instances of this class are thread-safe and do not use locks.
+ */
+public class TextIoPool implements AutoCloseable {
+    private final Supplier<TextTerminal> terminalFactory;
+    private final int maxIdle;
+    private final Predicate<TextIO> reset;
+    private final ConcurrentLinkedDeque<TextIO> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * @param terminalFactory creates the terminals of the new TextIO instances. Each call must return a new terminal.
+     * @param maxIdle the maximum number of idle instances kept by the pool
+     */
+    public TextIoPool(Supplier<TextTerminal> terminalFactory, int maxIdle) {
+        this(terminalFactory, maxIdle, textIO -> {
+            resetSettings(textIO);
+            return true;
+        });
+    }
+
+    /**
+     * @param terminalFactory creates the terminals of the new TextIO instances. Each call must return a new terminal.
+     * @param maxIdle the maximum number of idle instances kept by the pool
+     * @param reset called when an instance is released. If it returns false, the instance is disposed instead of being pooled.
+     */
+    public TextIoPool(Supplier<TextTerminal> terminalFactory, int maxIdle, Predicate<TextIO> reset) {
+        if(terminalFactory == null) throw new IllegalArgumentException("terminalFactory is null");
+        if(maxIdle < 0) throw new IllegalArgumentException("maxIdle = " + maxIdle);
+        if(reset == null) throw new IllegalArgumentException("reset is null");
+        this.terminalFactory = terminalFactory;
+        this.maxIdle = maxIdle;
+        this.reset = reset;
+    }
+
+    /**
+     * Restores the default executor and prompt scheduler of the TextIO instance,
+     * cancels the pending reads of its terminal and flushes the output.
+     */
+    public static void resetSettings(TextIO textIO) {
+        textIO.setExecutor(null);
+        textIO.setPromptScheduler(null);
+        TextTerminal terminal = textIO.getTextTerminal();
+        terminal.cancelRead();
+        terminal.flush();
+    }
+
+    /** Returns an idle TextIO instance or a new one. */
+    public TextIO acquire() {
+        TextIO textIO = idle.pollFirst();
+        if(textIO != null) {
+            idleCount.decrementAndGet();
+            return textIO;
+        }
+        return new TextIO(terminalFactory.get());
+    }
+
+    /** Resets the TextIO instance and returns it to the pool. The instance should no longer be used by the caller. */
+    public void release(TextIO textIO) {
+        if(textIO == null) throw new IllegalArgumentException("textIO is null");
+        if(!reset.test(textIO)) {
+            textIO.dispose();
+        } else if(idleCount.incrementAndGet() <= maxIdle) {
+            idle.offerFirst(textIO);
+        } else {
+            idleCount.decrementAndGet();
+            textIO.dispose();
+        }
+    }
+
+    /** Returns the number of idle instances. */
+    public int getIdleCount() {
+        return Math.max(0, idleCount.get());
+    }
+
+    /** Disposes the idle instances. */
+    @Override
+    public void close() {
+        TextIO textIO;
+        while((textIO = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            textIO.dispose();
+        }
+    }
+}
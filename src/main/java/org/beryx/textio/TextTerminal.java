@@ -15,9 +15,9 @@
  */
 package org.beryx.textio;
 
-import java.util.Arrays;
+import java.nio.CharBuffer;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Interface for text-based terminals capable of reading (optionally masking the input) and writing text.
@@ -30,6 +30,47 @@ public interface TextTerminal {
      */
     String read(boolean masking);
 
+    /**
+     * Reads a line of text, waiting at most for the specified duration.
+     * <br>The default implementation ignores the timeout and calls {@link #read(boolean)}.
+     * Implementations able to limit the waiting time should override this method.
+     * @param masking true, if the input should be masked (for example to enter a password)
+     * @param timeout the maximum time to wait for the input. If null, there is no time limit.
+     * @return the entered text
+     * @throws ReadTimeoutException if no input has been provided within the timeout
+     * @throws ReadCancelledException if the read has been cancelled by {@link #cancelRead()}
+     */
+    default String read(boolean masking, Duration timeout) {
+        return read(masking);
+    }
+
+    /**
+     * Reads a line of text like {@link #read(boolean, Duration)}, on behalf of the given token.
+     * The read can be cancelled by {@link ReadToken#cancel()}, which does not affect the reads of other callers.
+     * <br>The default implementation registers {@link #cancelRead()} with the token and calls {@link #read(boolean, Duration)}.
+     * Therefore, it may miss a cancellation that arrives just before the terminal starts waiting for input
+     * or just after the input has been read. Implementations that support cancellation should override this method.
+     * @throws ReadCancelledException if the token has been cancelled before or during the read
+     */
+    default String read(boolean masking, Duration timeout, ReadToken token) {
+        token.register(this::cancelRead);
+        try {
+            String line = read(masking, timeout);
+            token.consumeInput();
+            return line;
+        } finally {
+            token.unregister();
+        }
+    }
+
+    /**
+     * Cancels the pending reads, if any. This method is typically called from another thread than the reading one.
+     * A cancelled read throws a {@link ReadCancelledException}. Reads that start after this call are not affected.
+     * <br>The default implementation does nothing.
+     * Implementations should document which reads can be cancelled.
+     */
+    default void cancelRead() {}
+
     /**
      * Prints the message in its raw form.
      * This method expects a single line of text.
@@ -42,6 +83,23 @@ public interface TextTerminal {
      */
     void println();
 
+    /**
+     * Returns true if the input of this terminal is provided interactively by a user.
+     * Non-interactive terminals (for example, terminals whose input is piped from a file) may be used without displaying prompts.
+     * The default implementation returns true.
+     */
+    default boolean isInteractive() {
+        return true;
+    }
+
+    /**
+     * Writes the output buffered by this terminal, if any.
+     * Terminals that buffer their output write it before reading, but {@link ConcurrentOutputTextTerminal} also calls this method
+     * in order to display the lines printed while a read is pending.
+     * The default implementation does nothing.
+     */
+    default void flush() {}
+
     /**
      * This method is typically called at the end of a text-based input/output session in order to allow the terminal to release its screen resources.
      * The terminal should be able to rebuild the released resources when a print or read method is subsequently called.
@@ -64,12 +122,55 @@ public interface TextTerminal {
         }
     }
 
+    /**
+     * Prints the characters between <tt>start</tt> (inclusive) and <tt>end</tt> (exclusive) in their raw form.
+     * This method expects a single line of text.
+     * The behavior is undefined if the specified region contains line separators.
+     * <br>The default implementation passes a String instance to {@link #rawPrint(String)} without copying it,
+     * if the entire content of this String is requested.
+     * Implementations able to write character sequences directly should override this method.
+     */
+    default void rawPrint(CharSequence text, int start, int end) {
+        if(start == 0 && end == text.length() && text instanceof String) {
+            rawPrint((String)text);
+        } else {
+            rawPrint(text.subSequence(start, end).toString());
+        }
+    }
+
     /**
      * Prints a message that possibly contains line separators.
      */
     default void print(String message) {
-        List<String> messages = Arrays.asList(message.split("\\R", -1));
-        rawPrint(messages);
+        print((CharSequence)message);
+    }
+
+    /**
+     * Prints a character sequence that possibly contains line separators.
+     * The line separators recognized are the ones matched by the <tt>\R</tt> regex construct.
+     * The text is scanned without creating intermediate collections and each line is passed to {@link #rawPrint(CharSequence, int, int)}.
+     */
+    default void print(CharSequence text) {
+        int len = text.length();
+        int start = 0;
+        for(int i = 0; i < len; i++) {
+            char ch = text.charAt(i);
+            if(LineSeparators.isLineSeparator(ch)) {
+                rawPrint(text, start, i);
+                println();
+                if(ch == '\r' && i + 1 < len && text.charAt(i + 1) == '\n') i++;
+                start = i + 1;
+            }
+        }
+        rawPrint(text, start, len);
+    }
+
+    /**
+     * Prints <tt>length</tt> characters of the array, starting at <tt>offset</tt>.
+     * The characters may contain line separators.
+     */
+    default void print(char[] chars, int offset, int length) {
+        print(CharBuffer.wrap(chars, offset, length));
     }
 
     /**
@@ -80,6 +181,14 @@ public interface TextTerminal {
         println();
     }
 
+    /**
+     * Prints a character sequence that possibly contains line separators and subsequently prints a line separator.
+     */
+    default void println(CharSequence text) {
+        print(text);
+        println();
+    }
+
     /**
      * Prints each message in the list, inserting the line separator string between messages.
      * No separator string is printed after the last message.
@@ -87,8 +196,11 @@ public interface TextTerminal {
      */
     default void print(List<String> messages) {
         if(messages == null) return;
-        List<String> rawMessages = messages.stream().flatMap(msg -> Arrays.stream(msg.split("\\R", -1))).collect(Collectors.toList());
-        rawPrint(rawMessages);
+        int count = messages.size();
+        for(int i = 0; i < count; i++) {
+            if(i > 0) println();
+            print((CharSequence)messages.get(i));
+        }
     }
 
     /**
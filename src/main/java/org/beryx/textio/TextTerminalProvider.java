@@ -20,4 +20,13 @@ package org.beryx.textio;
  */
 public interface TextTerminalProvider {
     TextTerminal getTextTerminal();
+
+    /**
+     * Returns true if the terminals returned by successive calls of {@link #getTextTerminal()} are independent of each other,
+     * that is, they do not share their input or output.
+     * Only such providers are used by {@link TextIoFactory#newTextIO()} and {@link TextIoFactory#newTextIoPool(int)}.
+     */
+    default boolean providesIndependentTerminals() {
+        return false;
+    }
 }
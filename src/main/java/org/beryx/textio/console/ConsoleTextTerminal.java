@@ -15,15 +15,26 @@
  */
 package org.beryx.textio.console;
 
+import org.beryx.textio.InputPoller;
+import org.beryx.textio.ReadCancelledException;
+import org.beryx.textio.ReadToken;
 import org.beryx.textio.TextTerminal;
 
 import java.io.Console;
+import java.io.IOException;
+import java.time.Duration;
 
 /**
  * A {@link TextTerminal} backed by a {@link Console}.
+ * <br>Reads with a {@link #read(boolean, Duration) timeout} do not block the calling thread until input is available:
+ * they periodically check if the console reader is ready. Only these reads can be {@link #cancelRead() cancelled} or cancelled by their {@link ReadToken}.
+ * This also applies to a null timeout, which {@link org.beryx.textio.InputReader#readAsync(java.util.List, Duration) asynchronous reads} use.
+ * <br>Reads with input masking ignore the timeout, because the console disables the echoing of the typed characters
+ * only while blocked in {@link Console#readPassword()}.
  */
 public class ConsoleTextTerminal implements TextTerminal {
     private final Console console;
+    private final InputPoller inputPoller = new InputPoller();
 
     public ConsoleTextTerminal() {
         this(System.console());
@@ -44,15 +55,45 @@ public class ConsoleTextTerminal implements TextTerminal {
         }
     }
 
+    @Override
+    public String read(boolean masking, Duration timeout) {
+        return read(masking, timeout, new ReadToken());
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout, ReadToken token) {
+        if(masking) {
+            if(!token.consumeInput()) throw new ReadCancelledException("read cancelled");
+        } else {
+            inputPoller.awaitInput(this::isInputAvailable, timeout, token);
+        }
+        return read(masking);
+    }
+
+    /** Cancels the pending reads with timeout or token that wait for unmasked input. Reads that start after this call are not affected. */
+    @Override
+    public void cancelRead() {
+        inputPoller.cancel();
+    }
+
+    private boolean isInputAvailable() {
+        try {
+            return console.reader().ready();
+        } catch (IOException e) {
+            // Let the subsequent read report the problem.
+            return true;
+        }
+    }
+
     @Override
     public void rawPrint(String message) {
-        console.printf(message);
+        console.writer().print(message);
         console.flush();
     }
 
     @Override
     public void println() {
-        console.printf("\n");
+        console.writer().print('\n');
         console.flush();
     }
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import org.beryx.textio.ReadCancelledException;
+import org.beryx.textio.ReadInterruptedException;
+import org.beryx.textio.ReadTimeoutException;
+import org.beryx.textio.ReadToken;
+import org.beryx.textio.TextTerminal;
+import org.beryx.textio.system.ChannelLineReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link TextTerminal} to which clients can attach and detach over a pair of channels, one client at a time.
+ * <br>While no client is attached, the output is buffered (only the most recent {@value #DEFAULT_BACKLOG_SIZE} characters are kept)
+ * and reads wait until a client attaches and sends a line.
+ * When a client attaches, the buffered output is sent to it.
+ * <br>The output is sent to the client after each line and before each read.
+ * <br>It is not capable to mask input strings, therefore not recommended when reading sensitive data.
+ */
+public class AttachableTextTerminal implements TextTerminal, Closeable {
+    public static final int DEFAULT_BACKLOG_SIZE = 65536;
+
+    private final Charset charset;
+    private final int backlogSize;
+
+    private final ReentrantLock outputLock = new ReentrantLock();
+    private final StringBuilder pendingOutput = new StringBuilder();
+    private WritableByteChannel client;
+
+    private final ReentrantLock inputLock = new ReentrantLock();
+    private final Condition lineAvailable = inputLock.newCondition();
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private final Set<ReadToken> activeReads = new HashSet<>();
+    private volatile boolean closed = false;
+
+    public AttachableTextTerminal(Charset charset) {
+        this(charset, DEFAULT_BACKLOG_SIZE);
+    }
+
+    /**
+     * @param backlogSize the maximum number of characters buffered while no client is attached
+     */
+    public AttachableTextTerminal(Charset charset, int backlogSize) {
+        if(charset == null) throw new IllegalArgumentException("charset is null");
+        if(backlogSize <= 0) throw new IllegalArgumentException("backlogSize = " + backlogSize);
+        this.charset = charset;
+        this.backlogSize = backlogSize;
+    }
+
+    /**
+     * Attaches a client and serves it until the end of its input.
+     * The lines read from <tt>in</tt> are the input of this terminal. The output is written to <tt>out</tt>.
+     * The channels are not closed by this method.
+     * @throws IllegalStateException if another client is attached
+     * @throws IOException if reading from the client failed. The client is detached.
+     */
+    public void serve(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        outputLock.lock();
+        try {
+            if(client != null) throw new IllegalStateException("Another client is attached.");
+            client = out;
+            sendPendingOutput();
+        } finally {
+            outputLock.unlock();
+        }
+        try {
+            ChannelLineReader reader = new ChannelLineReader(in, charset, 4096);
+            String line;
+            while(!closed && (line = reader.readLine()) != null) {
+                inputLock.lock();
+                try {
+                    lines.add(line);
+                    lineAvailable.signalAll();
+                } finally {
+                    inputLock.unlock();
+                }
+            }
+        } finally {
+            detach(out);
+        }
+    }
+
+    /** Returns true if a client is attached. */
+    public boolean isAttached() {
+        outputLock.lock();
+        try {
+            return client != null;
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    /** Waits without a time limit until a client attaches and sends a line. */
+    @Override
+    public String read(boolean masking) {
+        return read(masking, null);
+    }
+
+    /**
+     * Waits until a client attaches and sends a line.
+     * @throws NoSuchElementException if the terminal has been closed
+     */
+    @Override
+    public String read(boolean masking, Duration timeout) {
+        return read(masking, timeout, new ReadToken());
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout, ReadToken token) {
+        flush();
+        inputLock.lock();
+        try {
+            token.register(this::wakeUpReaders);
+            activeReads.add(token);
+            try {
+                long remaining = (timeout == null) ? 0 : timeout.toNanos();
+                while(true) {
+                    if(token.isCancelled()) throw new ReadCancelledException("read cancelled");
+                    if(!lines.isEmpty()) break;
+                    if(closed) throw new NoSuchElementException("The terminal has been closed.");
+                    try {
+                        if(timeout == null) {
+                            lineAvailable.await();
+                        } else {
+                            if(remaining <= 0) throw new ReadTimeoutException("No input provided within " + timeout);
+                            remaining = lineAvailable.awaitNanos(remaining);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ReadInterruptedException("read interrupted", e);
+                    }
+                }
+                if(!token.consumeInput()) throw new ReadCancelledException("read cancelled");
+            } finally {
+                activeReads.remove(token);
+                token.unregister();
+            }
+            return lines.poll();
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    /** Cancels the pending reads. Reads that start after this call are not affected. Can be called at any time. */
+    @Override
+    public void cancelRead() {
+        inputLock.lock();
+        try {
+            for(ReadToken token : activeReads.toArray(new ReadToken[0])) {
+                token.cancel();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    private void wakeUpReaders() {
+        inputLock.lock();
+        try {
+            lineAvailable.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    @Override
+    public void rawPrint(String message) {
+        rawPrint(message, 0, message.length());
+    }
+
+    @Override
+    public void rawPrint(CharSequence text, int start, int end) {
+        outputLock.lock();
+        try {
+            pendingOutput.append(text, start, end);
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    @Override
+    public void println() {
+        outputLock.lock();
+        try {
+            pendingOutput.append(System.lineSeparator());
+            flush();
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    /** Sends the pending output to the attached client or, if no client is attached, trims the buffered output to the backlog size. */
+    @Override
+    public void flush() {
+        outputLock.lock();
+        try {
+            if(client != null) {
+                sendPendingOutput();
+            } else if(pendingOutput.length() > backlogSize) {
+                pendingOutput.delete(0, pendingOutput.length() - backlogSize);
+            }
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        flush();
+    }
+
+    /** Closes the terminal. Pending and subsequent reads throw a {@link NoSuchElementException}. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        inputLock.lock();
+        try {
+            lineAvailable.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Must be called while holding the outputLock. If the client cannot be written to, it is detached and the output is kept. */
+    private void sendPendingOutput() {
+        if(pendingOutput.length() == 0) return;
+        ByteBuffer bytes = charset.encode(pendingOutput.toString());
+        try {
+            while(bytes.hasRemaining()) {
+                client.write(bytes);
+            }
+            pendingOutput.setLength(0);
+        } catch (IOException e) {
+            client = null;
+        }
+    }
+
+    private void detach(WritableByteChannel out) {
+        outputLock.lock();
+        try {
+            if(client == out) client = null;
+        } finally {
+            outputLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import org.beryx.textio.TextTerminal;
+import org.beryx.textio.system.ChannelLineReader;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A {@link TextTerminal} that writes to a {@link WritableByteChannel} and reads from a {@link ReadableByteChannel}.
+ * <br>The output is encoded into a reusable direct {@link ByteBuffer} and it is written to the channel only
+ * when the buffer is full, before reading the input, or when {@link #flush()} or {@link #dispose()} is called.
+ * Therefore, applications that print without reading afterwards should call {@link #dispose()} at the end of the session.
+ * <br>The input is read by a {@link ChannelLineReader}. At the end of the input, {@link #read(boolean)} returns null.
+ * <br>It is not capable to mask input strings, therefore not recommended when reading sensitive data.
+ */
+public class NioTextTerminal implements TextTerminal {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel inChannel;
+    private final WritableByteChannel outChannel;
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer outBuffer;
+    private final CharBuffer lineSeparator = CharBuffer.wrap(System.lineSeparator());
+
+    private final boolean interactive;
+
+    private ChannelLineReader lineReader;
+
+    /** Creates a terminal that uses the standard input and output streams. */
+    public NioTextTerminal() {
+        this(Channels.newChannel(System.in), new FileOutputStream(FileDescriptor.out).getChannel(),
+                Charset.defaultCharset(), DEFAULT_BUFFER_SIZE, System.console() != null);
+    }
+
+    public NioTextTerminal(ReadableByteChannel inChannel, WritableByteChannel outChannel) {
+        this(inChannel, outChannel, Charset.defaultCharset(), DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * @param interactive the value returned by {@link #isInteractive()}.
+     */
+    public NioTextTerminal(ReadableByteChannel inChannel, WritableByteChannel outChannel, Charset charset, int bufferSize, boolean interactive) {
+        if(inChannel == null) throw new IllegalArgumentException("inChannel is null");
+        if(outChannel == null) throw new IllegalArgumentException("outChannel is null");
+        if(charset == null) throw new IllegalArgumentException("charset is null");
+        this.inChannel = inChannel;
+        this.outChannel = outChannel;
+        this.charset = charset;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        int minSize = (int)Math.ceil(encoder.maxBytesPerChar());
+        if(bufferSize < minSize) throw new IllegalArgumentException("bufferSize = " + bufferSize);
+        this.outBuffer = ByteBuffer.allocateDirect(bufferSize);
+        this.interactive = interactive;
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return interactive;
+    }
+
+    @Override
+    public String read(boolean masking) {
+        flush();
+        try {
+            return getLineReader().readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("read failed", e);
+        }
+    }
+
+    @Override
+    public void rawPrint(String message) {
+        rawPrint(message, 0, message.length());
+    }
+
+    @Override
+    public synchronized void rawPrint(CharSequence text, int start, int end) {
+        if(start < end) {
+            encode(CharBuffer.wrap(text, start, end));
+        }
+    }
+
+    @Override
+    public synchronized void println() {
+        lineSeparator.rewind();
+        encode(lineSeparator);
+    }
+
+    /** Writes the buffered output to the channel. */
+    @Override
+    public synchronized void flush() {
+        try {
+            outBuffer.flip();
+            while(outBuffer.hasRemaining()) {
+                outChannel.write(outBuffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("write failed", e);
+        } finally {
+            outBuffer.clear();
+        }
+    }
+
+    /** Flushes the buffered output. The channels are not closed. */
+    @Override
+    public void dispose() {
+        flush();
+    }
+
+    private void encode(CharBuffer chars) {
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, outBuffer, true);
+            if(result.isOverflow()) flush();
+        } while(!result.isUnderflow());
+        while(encoder.flush(outBuffer).isOverflow()) {
+            flush();
+        }
+        if(!outBuffer.hasRemaining()) flush();
+    }
+
+    private ChannelLineReader getLineReader() {
+        if(lineReader == null) {
+            lineReader = new ChannelLineReader(inChannel, charset, ChannelLineReader.DEFAULT_BUFFER_SIZE);
+        }
+        return lineReader;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import org.beryx.textio.ReadCancelledException;
+import org.beryx.textio.ReadInterruptedException;
+import org.beryx.textio.ReadTimeoutException;
+import org.beryx.textio.ReadToken;
+import org.beryx.textio.TextTerminal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@link TextTerminal} of a session of a {@link SocketTextTerminalServer}.
+ * <br>The session thread never performs socket I/O. The output is encoded into a per-session buffer,
+ * which is written to the socket by the selector thread of the server after each line and before each read.
+ * The input is decoded by the selector thread into a queue of lines, from which {@link #read(boolean, Duration)} takes the next one.
+ * <br>If the client closes the connection, pending and subsequent reads throw a {@link NoSuchElementException}
+ * and the output is discarded.
+ * <br>It is not capable to mask input strings, therefore not recommended when reading sensitive data.
+ */
+public class SocketTextTerminal implements TextTerminal {
+    /** The line separator sent to the client, as required by the telnet protocol. */
+    public static final String LINE_SEPARATOR = "\r\n";
+
+    static final int INPUT_BUFFER_SIZE = 4096;
+    static final int INITIAL_OUTPUT_BUFFER_SIZE = 1024;
+    static final int MAX_OUTPUT_BUFFER_SIZE = 1 << 20;
+    static final int MAX_LINE_LENGTH = 65536;
+    static final int MAX_PENDING_LINES = 256;
+
+    private final SocketTextTerminalServer server;
+    private final SocketChannel channel;
+    private final CharBuffer lineSeparator = CharBuffer.wrap(LINE_SEPARATOR);
+    SelectionKey key;
+
+    // Output: written by the session thread, drained by the selector thread.
+    private final ReentrantLock outputLock = new ReentrantLock();
+    private final Condition outputDrained = outputLock.newCondition();
+    private final CharsetEncoder encoder;
+    private ByteBuffer outBuffer = ByteBuffer.allocate(INITIAL_OUTPUT_BUFFER_SIZE);
+
+    // Input: filled by the selector thread, consumed by the session thread.
+    private final ReentrantLock inputLock = new ReentrantLock();
+    private final Condition lineAvailable = inputLock.newCondition();
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private final Set<ReadToken> activeReads = new HashSet<>();
+    private boolean endOfInput = false;
+
+    // Accessed only by the selector thread
+    private final CharsetDecoder decoder;
+    private final ByteBuffer inBuffer = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+    private final CharBuffer charBuffer;
+    private final StringBuilder currentLine = new StringBuilder();
+    private boolean skipLF = false;
+
+    final AtomicBoolean updateRequested = new AtomicBoolean();
+    private volatile boolean closed = false;
+    private volatile boolean finished = false;
+
+    SocketTextTerminal(SocketTextTerminalServer server, SocketChannel channel, Charset charset) {
+        this.server = server;
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.charBuffer = CharBuffer.allocate((int)Math.ceil(INPUT_BUFFER_SIZE * decoder.maxCharsPerByte()));
+    }
+
+    /** Returns the channel connected to the client of this session. */
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public String read(boolean masking) {
+        return read(masking, null);
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout) {
+        return read(masking, timeout, new ReadToken());
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout, ReadToken token) {
+        flush();
+        String line;
+        inputLock.lock();
+        try {
+            token.register(this::wakeUpReaders);
+            activeReads.add(token);
+            try {
+                long remaining = (timeout == null) ? 0 : timeout.toNanos();
+                while(true) {
+                    if(token.isCancelled()) throw new ReadCancelledException("read cancelled");
+                    if(!lines.isEmpty()) break;
+                    if(endOfInput) throw new NoSuchElementException("The client closed the connection.");
+                    try {
+                        if(timeout == null) {
+                            lineAvailable.await();
+                        } else {
+                            if(remaining <= 0) throw new ReadTimeoutException("No input provided within " + timeout);
+                            remaining = lineAvailable.awaitNanos(remaining);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ReadInterruptedException("read interrupted", e);
+                    }
+                }
+                if(!token.consumeInput()) throw new ReadCancelledException("read cancelled");
+            } finally {
+                activeReads.remove(token);
+                token.unregister();
+            }
+            line = lines.poll();
+            if(lines.size() != MAX_PENDING_LINES - 1) return line;
+        } finally {
+            inputLock.unlock();
+        }
+        // The selector thread may have stopped reading because too many lines were pending.
+        server.requestUpdate(this);
+        return line;
+    }
+
+    /** Cancels the pending reads. Reads that start after this call are not affected. Can be called at any time. */
+    @Override
+    public void cancelRead() {
+        inputLock.lock();
+        try {
+            for(ReadToken token : activeReads.toArray(new ReadToken[0])) {
+                token.cancel();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    private void wakeUpReaders() {
+        inputLock.lock();
+        try {
+            lineAvailable.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    @Override
+    public void rawPrint(String message) {
+        rawPrint(message, 0, message.length());
+    }
+
+    @Override
+    public void rawPrint(CharSequence text, int start, int end) {
+        if(start < end) encode(CharBuffer.wrap(text, start, end));
+    }
+
+    /** Prints the line separator and sends the buffered output to the client. */
+    @Override
+    public void println() {
+        lineSeparator.rewind();
+        encode(lineSeparator);
+        flush();
+    }
+
+    /** Sends the buffered output to the client. The method returns without waiting for the output to be written. */
+    @Override
+    public void flush() {
+        if(!closed) server.requestUpdate(this);
+    }
+
+    @Override
+    public void dispose() {
+        flush();
+    }
+
+    private void encode(CharBuffer chars) {
+        if(closed) return;
+        outputLock.lock();
+        try {
+            encoder.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, outBuffer, true);
+                if(result.isOverflow()) makeRoom();
+            } while(!result.isUnderflow());
+            while(encoder.flush(outBuffer).isOverflow()) {
+                makeRoom();
+            }
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    /** Grows the output buffer or, if it has reached its maximum size, waits until the selector thread drains it. */
+    private void makeRoom() {
+        if(outBuffer.capacity() < MAX_OUTPUT_BUFFER_SIZE) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(Math.min(MAX_OUTPUT_BUFFER_SIZE, outBuffer.capacity() * 2));
+            outBuffer.flip();
+            newBuffer.put(outBuffer);
+            outBuffer = newBuffer;
+            return;
+        }
+        server.requestUpdate(this);
+        try {
+            while(!outBuffer.hasRemaining() && !closed) {
+                outputDrained.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadInterruptedException("write interrupted", e);
+        }
+        if(closed) outBuffer.clear();
+    }
+
+    // ---------------------------------------------------------------------------
+    // The methods below are called by the selector thread of the server.
+    // ---------------------------------------------------------------------------
+
+    /** Returns the interest set of the selection key, based on the state of the buffers. */
+    int getInterestOps() {
+        int ops = 0;
+        inputLock.lock();
+        try {
+            if(!endOfInput && lines.size() < MAX_PENDING_LINES) ops |= SelectionKey.OP_READ;
+        } finally {
+            inputLock.unlock();
+        }
+        if(hasPendingOutput() || finished) ops |= SelectionKey.OP_WRITE;
+        return ops;
+    }
+
+    private boolean hasPendingOutput() {
+        outputLock.lock();
+        try {
+            return outBuffer.position() > 0;
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the available bytes and adds the completed lines to the input queue.
+     * @return false, if the client has closed its output.
+     */
+    boolean onReadable() throws IOException {
+        int count = channel.read(inBuffer);
+        inBuffer.flip();
+        decoder.decode(inBuffer, charBuffer, count < 0);
+        inBuffer.compact();
+        charBuffer.flip();
+        int added = 0;
+        inputLock.lock();
+        try {
+            while(charBuffer.hasRemaining()) {
+                char ch = charBuffer.get();
+                if(skipLF) {
+                    skipLF = false;
+                    if(ch == '\n') continue;
+                }
+                if(ch == '\n' || ch == '\r') {
+                    skipLF = (ch == '\r');
+                    lines.add(currentLine.toString());
+                    currentLine.setLength(0);
+                    added++;
+                } else if(ch != 0 && currentLine.length() < MAX_LINE_LENGTH) {
+                    currentLine.append(ch);
+                }
+            }
+            if(count < 0) {
+                if(currentLine.length() > 0) {
+                    lines.add(currentLine.toString());
+                    currentLine.setLength(0);
+                    added++;
+                }
+                endOfInput = true;
+            }
+            if(added > 0 || endOfInput) lineAvailable.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+        charBuffer.clear();
+        return count >= 0;
+    }
+
+    /**
+     * Writes as much of the buffered output as possible.
+     * @return true, if the session has finished and its output has been completely written.
+     */
+    boolean onWritable() throws IOException {
+        outputLock.lock();
+        try {
+            outBuffer.flip();
+            channel.write(outBuffer);
+            outBuffer.compact();
+            if(outBuffer.position() == 0) outputDrained.signalAll();
+            return finished && outBuffer.position() == 0;
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    /** Marks the end of the session. The connection is closed after the buffered output has been written. */
+    void finish() {
+        finished = true;
+        server.requestUpdate(this);
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    /** Called when the connection has been closed. Pending reads fail and further output is discarded. */
+    void onClosed() {
+        closed = true;
+        inputLock.lock();
+        try {
+            endOfInput = true;
+            lineAvailable.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+        outputLock.lock();
+        try {
+            outBuffer.clear();
+            outputDrained.signalAll();
+        } finally {
+            outputLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A simple blocking client for a {@link SocketTextTerminalServer}, intended for tests, benchmarks and scripted sessions.
+ * <br>Instances of this class are not thread-safe.
+ */
+public class SocketTextTerminalClient implements Closeable {
+    private final SocketChannel channel;
+    private final Charset charset;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer inBuffer = ByteBuffer.allocate(4096);
+    private final CharBuffer charBuffer;
+    private final StringBuilder received = new StringBuilder();
+
+    /** Connects to the server at the given address, using UTF-8. */
+    public SocketTextTerminalClient(SocketAddress address) throws IOException {
+        this(SocketChannel.open(address), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param channel a connected channel. It is switched to blocking mode and closed by {@link #close()}.
+     * @param charset the charset used by the server
+     */
+    public SocketTextTerminalClient(SocketChannel channel, Charset charset) throws IOException {
+        if(channel == null) throw new IllegalArgumentException("channel is null");
+        if(charset == null) throw new IllegalArgumentException("charset is null");
+        this.channel = channel;
+        this.channel.configureBlocking(true);
+        this.charset = charset;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.charBuffer = CharBuffer.allocate((int)Math.ceil(inBuffer.capacity() * decoder.maxCharsPerByte()));
+    }
+
+    /**
+     * Reads until the received text contains the marker.
+     * @return the text received up to and including the first occurrence of the marker. The remaining text is kept for subsequent calls.
+     * @throws EOFException if the server closed the connection before sending the marker
+     */
+    public String readUntil(String marker) throws IOException {
+        int searchStart = 0;
+        while(true) {
+            int pos = received.indexOf(marker, searchStart);
+            if(pos >= 0) {
+                int end = pos + marker.length();
+                String text = received.substring(0, end);
+                received.delete(0, end);
+                return text;
+            }
+            searchStart = Math.max(0, received.length() - marker.length() + 1);
+            if(!receive()) throw new EOFException("Connection closed. Received: " + received);
+        }
+    }
+
+    /**
+     * Reads until the server closes the connection.
+     * @return the text received since the last call of {@link #readUntil(String)}.
+     */
+    public String readAll() throws IOException {
+        while(receive());
+        String text = received.toString();
+        received.setLength(0);
+        return text;
+    }
+
+    /** Sends the line followed by a line feed. */
+    public void sendLine(String line) throws IOException {
+        ByteBuffer bytes = charset.encode(line + "\n");
+        while(bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Returns false if the end of the stream has been reached. */
+    private boolean receive() throws IOException {
+        int count = channel.read(inBuffer);
+        inBuffer.flip();
+        decoder.decode(inBuffer, charBuffer, count < 0);
+        inBuffer.compact();
+        charBuffer.flip();
+        received.append(charBuffer);
+        charBuffer.clear();
+        return count >= 0;
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import org.beryx.textio.TextIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A server that runs a text-based session for each client connected to a socket (for example, via telnet or netcat).
+ * <br>All connections are multiplexed on a single {@link Selector} thread using non-blocking channels.
+ * Each session has its own {@link SocketTextTerminal} with its own input and output buffers and its own {@link TextIO},
+ * which is passed to the session handler.
+ * The session handlers run on an {@link Executor} (by default, {@link TextIO#getDefaultExecutor()}, which uses virtual threads if available)
+ * and can use the usual blocking style of {@link org.beryx.textio.InputReader#read(String...)}.
+ * <br>The connection is closed when the session handler returns, after the remaining output has been sent.
+ * If the client closes the connection, the pending read of the session throws a {@link NoSuchElementException}.
+ */
+public class SocketTextTerminalServer implements Closeable {
+    private static final Logger logger =  LoggerFactory.getLogger(SocketTextTerminalServer.class);
+
+    public static final int DEFAULT_MAX_SESSIONS = 10000;
+    public static final int DEFAULT_BACKLOG = 1024;
+
+    private final ServerSocketChannel serverChannel;
+    private final Consumer<TextIO> sessionHandler;
+    private final Executor executor;
+    private final Charset charset;
+    private final Selector selector;
+    private final Queue<SocketTextTerminal> pendingUpdates = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    private int maxSessions = DEFAULT_MAX_SESSIONS;
+    private Thread selectorThread;
+    private volatile boolean running = false;
+
+    /**
+     * Creates a server listening on the given address. The sessions use UTF-8 and run on the {@link TextIO#getDefaultExecutor()}.
+     * @param address the address to bind to. If the port is 0, an ephemeral port is chosen (see {@link #getLocalAddress()}).
+     * @param sessionHandler called for each new session, with the TextIO of the session.
+     */
+    public SocketTextTerminalServer(SocketAddress address, Consumer<TextIO> sessionHandler) throws IOException {
+        this(ServerSocketChannel.open().bind(address, DEFAULT_BACKLOG), sessionHandler, TextIO.getDefaultExecutor(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param serverChannel a bound server channel. The server takes ownership of the channel and closes it in {@link #close()}.
+     * @param sessionHandler called for each new session, with the TextIO of the session.
+     * @param executor the executor running the session handlers
+     * @param charset the charset used for encoding the output and decoding the input
+     */
+    public SocketTextTerminalServer(ServerSocketChannel serverChannel, Consumer<TextIO> sessionHandler, Executor executor, Charset charset) throws IOException {
+        if(serverChannel == null) throw new IllegalArgumentException("serverChannel is null");
+        if(sessionHandler == null) throw new IllegalArgumentException("sessionHandler is null");
+        if(executor == null) throw new IllegalArgumentException("executor is null");
+        if(charset == null) throw new IllegalArgumentException("charset is null");
+        this.serverChannel = serverChannel;
+        this.sessionHandler = sessionHandler;
+        this.executor = executor;
+        this.charset = charset;
+        this.selector = Selector.open();
+    }
+
+    /** Sets the maximum number of concurrent sessions. Further connections are closed immediately. */
+    public SocketTextTerminalServer withMaxSessions(int maxSessions) {
+        if(maxSessions <= 0) throw new IllegalArgumentException("maxSessions = " + maxSessions);
+        this.maxSessions = maxSessions;
+        return this;
+    }
+
+    /** Starts accepting connections. */
+    public synchronized SocketTextTerminalServer start() throws IOException {
+        if(selectorThread != null) throw new IllegalStateException("Server already started.");
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        selectorThread = new Thread(this::runSelectorLoop, "textio-socket-server");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        return this;
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /** Returns the number of active sessions. */
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    /** Stops the server and closes all connections. The pending reads of the active sessions throw a {@link NoSuchElementException}. */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized(this) {
+            running = false;
+            thread = selectorThread;
+        }
+        selector.wakeup();
+        if(thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeAll();
+    }
+
+    /** Closes all sessions, the selector and the server channel. */
+    private synchronized void closeAll() throws IOException {
+        if(selector.isOpen()) {
+            for(SelectionKey key : selector.keys()) {
+                if(key.attachment() instanceof SocketTextTerminal) closeSession(key);
+            }
+            selector.close();
+        }
+        serverChannel.close();
+    }
+
+    /** Asks the selector thread to recompute the interest set of the session, typically because output is pending. */
+    void requestUpdate(SocketTextTerminal terminal) {
+        if(terminal.updateRequested.compareAndSet(false, true)) {
+            pendingUpdates.offer(terminal);
+            selector.wakeup();
+        }
+    }
+
+    private void runSelectorLoop() {
+        try {
+            while(running) {
+                selector.select();
+                processPendingUpdates();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while(it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if(!key.isValid()) continue;
+                    if(key.isAcceptable()) {
+                        acceptAll();
+                    } else {
+                        handleIO(key);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if(running) logger.error("Socket server failed.", e);
+        } finally {
+            if(running) {
+                running = false;
+                try {
+                    closeAll();
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Cannot close the server.", e);
+                }
+            }
+        }
+    }
+
+    private void processPendingUpdates() {
+        SocketTextTerminal terminal;
+        while((terminal = pendingUpdates.poll()) != null) {
+            terminal.updateRequested.set(false);
+            SelectionKey key = terminal.key;
+            if(key != null && key.isValid()) key.interestOps(terminal.getInterestOps());
+        }
+    }
+
+    /**
+     * Accepts the pending connections. The failure of a single connection does not affect the server.
+     * If no further connection can be accepted (for example, because too many files are open),
+     * the remaining connections are accepted at the next selection.
+     */
+    private void acceptAll() {
+        while(true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                if(running) logger.warn("Cannot accept connection: " + e);
+                return;
+            }
+            if(channel == null) return;
+            try {
+                accept(channel);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Cannot set up connection: " + e);
+                try {
+                    channel.close();
+                } catch (IOException ce) {
+                    logger.debug("Cannot close connection: " + ce);
+                }
+            }
+        }
+    }
+
+    private void accept(SocketChannel channel) throws IOException {
+        if(sessionCount.get() >= maxSessions) {
+            logger.warn("Maximum number of sessions reached. Connection refused.");
+            channel.close();
+            return;
+        }
+        channel.configureBlocking(false);
+        if(channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        SocketTextTerminal terminal = new SocketTextTerminal(this, channel, charset);
+        terminal.key = channel.register(selector, SelectionKey.OP_READ, terminal);
+        sessionCount.incrementAndGet();
+        try {
+            executor.execute(() -> runSession(terminal));
+        } catch (RuntimeException e) {
+            logger.error("Cannot start session.", e);
+            closeSession(terminal.key);
+        }
+    }
+
+    private void runSession(SocketTextTerminal terminal) {
+        try {
+            sessionHandler.accept(new TextIO(terminal));
+        } catch (NoSuchElementException e) {
+            logger.debug("Session terminated by the client.");
+        } catch (RuntimeException e) {
+            logger.warn("Session failed.", e);
+        } finally {
+            terminal.finish();
+        }
+    }
+
+    private void handleIO(SelectionKey key) {
+        SocketTextTerminal terminal = (SocketTextTerminal)key.attachment();
+        try {
+            if(key.isReadable()) {
+                terminal.onReadable();
+            }
+            if(key.isValid() && key.isWritable()) {
+                if(terminal.onWritable()) {
+                    closeSession(key);
+                    return;
+                }
+            }
+            if(key.isValid()) key.interestOps(terminal.getInterestOps());
+        } catch (IOException | UncheckedIOException e) {
+            logger.debug("Connection closed: " + e);
+            closeSession(key);
+        }
+    }
+
+    private void closeSession(SelectionKey key) {
+        if(!key.isValid()) return;
+        SocketTextTerminal terminal = (SocketTextTerminal)key.attachment();
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            logger.debug("Cannot close connection: " + e);
+        }
+        terminal.onClosed();
+        sessionCount.decrementAndGet();
+    }
+}
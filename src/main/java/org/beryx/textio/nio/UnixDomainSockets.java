@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+/**
+ * Provides access to Unix domain socket channels, which are available only on Java 16 and later.
+ * The corresponding API is accessed via reflection, because this library targets Java 8.
+ */
+class UnixDomainSockets {
+    private static final Method ADDRESS_FACTORY;
+    private static final Method OPEN_SERVER_CHANNEL;
+    private static final ProtocolFamily UNIX;
+
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    static {
+        Method addressFactory = null;
+        Method openServerChannel = null;
+        ProtocolFamily unix = null;
+        try {
+            addressFactory = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class);
+            openServerChannel = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+            unix = StandardProtocolFamily.valueOf("UNIX");
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            addressFactory = null;
+        }
+        ADDRESS_FACTORY = addressFactory;
+        OPEN_SERVER_CHANNEL = openServerChannel;
+        UNIX = unix;
+    }
+
+    private UnixDomainSockets() {}
+
+    /** Returns true if the Java runtime supports Unix domain socket channels. */
+    static boolean isSupported() {
+        return ADDRESS_FACTORY != null;
+    }
+
+    static SocketAddress address(Path path) {
+        checkSupported();
+        try {
+            return (SocketAddress)ADDRESS_FACTORY.invoke(null, path);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create a Unix domain socket address for " + path, e);
+        }
+    }
+
+    /**
+     * Opens a server channel bound to the given path.
+     * A stale socket file left by a previous process is deleted.
+     * A socket is considered stale only if connecting to it is refused. Files that are not sockets are never deleted.
+     * @throws BindException if another process is listening on the socket
+     */
+    static ServerSocketChannel openServerChannel(Path path) throws IOException {
+        checkSupported();
+        if(isSocketFile(path)) {
+            try {
+                connect(path).close();
+                throw new BindException("Another process is listening on " + path);
+            } catch (ConnectException e) {
+                Files.delete(path);
+            }
+        }
+        ServerSocketChannel channel;
+        try {
+            channel = (ServerSocketChannel)OPEN_SERVER_CHANNEL.invoke(null, UNIX);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot open a Unix domain socket channel", e);
+        } catch (InvocationTargetException e) {
+            if(e.getCause() instanceof IOException) throw (IOException)e.getCause();
+            throw new IllegalStateException("Cannot open a Unix domain socket channel", e.getCause());
+        }
+        try {
+            channel.bind(address(path));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    static SocketChannel connect(Path path) throws IOException {
+        return SocketChannel.open(address(path));
+    }
+
+    /** Returns true if the path denotes a socket file. Symbolic links are not followed. */
+    private static boolean isSocketFile(Path path) throws IOException {
+        if(!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) return false;
+        try {
+            int mode = (Integer)Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+            return (mode & S_IFMT) == S_IFSOCK;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void checkSupported() {
+        if(!isSupported()) throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later.");
+    }
+}
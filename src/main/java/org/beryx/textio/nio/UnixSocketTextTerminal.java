@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An {@link AttachableTextTerminal} that listens on a Unix domain socket.
+ * It allows processes without a console (such as daemons) to interact with an operator,
+ * who attaches to the socket using the {@link UnixSocketTextTerminalClient} or a tool such as <tt>nc -U</tt>.
+ * No TCP port is opened and the access can be restricted using the file permissions of the socket.
+ * <br>A daemon thread accepts the clients and reads their input. Clients are served one at a time:
+ * a client connecting while another one is attached waits until the attached one disconnects.
+ * <br>Unix domain sockets are supported only by Java 16 and later.
+ */
+public class UnixSocketTextTerminal extends AttachableTextTerminal {
+    private static final Logger logger =  LoggerFactory.getLogger(UnixSocketTextTerminal.class);
+
+    private final Path socketPath;
+    private final ServerSocketChannel serverChannel;
+
+    /** Creates a terminal listening on the given socket path, using UTF-8. */
+    public UnixSocketTextTerminal(Path socketPath) throws IOException {
+        this(socketPath, StandardCharsets.UTF_8, DEFAULT_BACKLOG_SIZE);
+    }
+
+    /**
+     * @param socketPath the path of the socket file. A stale socket file at this path is replaced.
+     * @param backlogSize the maximum number of characters buffered while no client is attached
+     * @throws UnsupportedOperationException if the Java runtime does not support Unix domain sockets
+     */
+    public UnixSocketTextTerminal(Path socketPath, Charset charset, int backlogSize) throws IOException {
+        super(charset, backlogSize);
+        if(socketPath == null) throw new IllegalArgumentException("socketPath is null");
+        this.socketPath = socketPath;
+        this.serverChannel = UnixDomainSockets.openServerChannel(socketPath);
+        Thread acceptor = new Thread(this::acceptClients, "textio-unix-socket");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Returns true if the Java runtime supports Unix domain sockets. */
+    public static boolean isSupported() {
+        return UnixDomainSockets.isSupported();
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    /** Stops listening and deletes the socket file. Pending and subsequent reads throw a {@link java.util.NoSuchElementException}. */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        serverChannel.close();
+        Files.deleteIfExists(socketPath);
+    }
+
+    private void acceptClients() {
+        while(!isClosed()) {
+            try(SocketChannel client = serverChannel.accept()) {
+                logger.debug("Client attached to " + socketPath);
+                serve(client, client);
+                logger.debug("Client detached from " + socketPath);
+            } catch (AsynchronousCloseException e) {
+                break;
+            } catch (IOException e) {
+                if(isClosed()) break;
+                logger.debug("Client connection failed: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A command line client that attaches to a {@link UnixSocketTextTerminal}.
+ * <br>Usage: <tt>java -cp text-io.jar org.beryx.textio.nio.UnixSocketTextTerminalClient &lt;socket-path&gt;</tt>
+ * <br>The output of the terminal is copied to the standard output and the standard input is sent to the terminal.
+ * The client exits when the terminal closes the connection or when the standard input ends.
+ */
+public class UnixSocketTextTerminalClient {
+    private final Path socketPath;
+
+    public UnixSocketTextTerminalClient(Path socketPath) {
+        if(socketPath == null) throw new IllegalArgumentException("socketPath is null");
+        this.socketPath = socketPath;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length != 1) {
+            System.err.println("Usage: " + UnixSocketTextTerminalClient.class.getName() + " <socket-path>");
+            System.exit(2);
+        }
+        if(!UnixSocketTextTerminal.isSupported()) {
+            System.err.println("Unix domain sockets require Java 16 or later.");
+            System.exit(1);
+        }
+        new UnixSocketTextTerminalClient(Paths.get(args[0])).run(System.in, System.out);
+    }
+
+    /** Attaches to the terminal and forwards the input and output until one of the sides closes. */
+    public void run(InputStream in, PrintStream out) throws IOException {
+        try(SocketChannel channel = UnixDomainSockets.connect(socketPath)) {
+            Thread inputForwarder = new Thread(() -> forwardInput(Channels.newChannel(in), channel), "textio-attach-input");
+            inputForwarder.setDaemon(true);
+            inputForwarder.start();
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while(channel.read(buffer) >= 0) {
+                buffer.flip();
+                out.write(buffer.array(), 0, buffer.limit());
+                out.flush();
+                buffer.clear();
+            }
+        }
+    }
+
+    private static void forwardInput(ReadableByteChannel in, WritableByteChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        try {
+            while(in.read(buffer) >= 0) {
+                buffer.flip();
+                while(buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            if(channel instanceof SocketChannel) ((SocketChannel)channel).shutdownOutput();
+        } catch (IOException e) {
+            // The connection has been closed. The output loop terminates as well.
+        }
+    }
+}
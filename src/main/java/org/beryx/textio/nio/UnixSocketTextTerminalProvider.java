@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio;
+
+import org.beryx.textio.TextTerminal;
+import org.beryx.textio.TextTerminalProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * If the system property {@value #SOCKET_PATH_PROPERTY} is set and the Java runtime supports Unix domain sockets,
+ * it provides a {@link UnixSocketTextTerminal} listening on the socket with the given path.
+ */
+public class UnixSocketTextTerminalProvider implements TextTerminalProvider {
+    private static final Logger logger =  LoggerFactory.getLogger(UnixSocketTextTerminalProvider.class);
+
+    public static final String SOCKET_PATH_PROPERTY = "org.beryx.textio.nio.unixSocketPath";
+
+    public TextTerminal getTextTerminal() {
+        String path = System.getProperty(SOCKET_PATH_PROPERTY, "").trim();
+        if(path.isEmpty()) return null;
+        if(!UnixSocketTextTerminal.isSupported()) {
+            logger.warn("Unix domain sockets are not supported by this Java runtime. Ignoring " + SOCKET_PATH_PROPERTY);
+            return null;
+        }
+        try {
+            return new UnixSocketTextTerminal(Paths.get(path));
+        } catch (IOException e) {
+            logger.warn("Unable to listen on " + path, e);
+            return null;
+        }
+    }
+}
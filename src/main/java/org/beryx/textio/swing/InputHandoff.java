@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing;
+
+import org.beryx.textio.ReadCancelledException;
+import org.beryx.textio.ReadTimeoutException;
+import org.beryx.textio.ReadToken;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands the input line completed on the event dispatch thread over to the thread waiting in {@link org.beryx.textio.TextTerminal#read(boolean)}.
+ * <br>It relies only on {@link java.util.concurrent.locks} primitives, therefore a waiting virtual thread does not pin its carrier thread.
+ * Concurrent reads are served one at a time, in the order of their arrival. Each input line is delivered to exactly one reader.
+ */
+class InputHandoff {
+    /** Guards the state of the handoff. The terminals also use it to guard their editing state. */
+    final ReentrantLock lock = new ReentrantLock();
+    private final Condition inputAvailable = lock.newCondition();
+    private final ReentrantLock readerLock = new ReentrantLock(true);
+
+    private boolean reading = false;
+    private boolean masking = false;
+    private ReadToken activeToken;
+    private String input;
+
+    /**
+     * Waits for the next input line, without time limit.
+     * @see #read(boolean, Runnable, long)
+     */
+    String read(boolean masking, Runnable onStart) throws InterruptedException {
+        return read(masking, onStart, -1);
+    }
+
+    /**
+     * Waits for the next input line.
+     * @param masking the value returned by {@link #isMasking()} while this read is active
+     * @param onStart an action executed (while holding {@link #lock}) when this read becomes active. May be null.
+     * @param timeoutNanos the maximum time to wait, including the time spent waiting for other reads to complete. If negative, there is no time limit.
+     * @throws InterruptedException if the thread has been interrupted while waiting for the read to become active or for the input.
+     * @throws ReadTimeoutException if the timeout elapsed
+     * @throws ReadCancelledException if {@link #cancel()} has been called while this read was active
+     */
+    String read(boolean masking, Runnable onStart, long timeoutNanos) throws InterruptedException {
+        return read(masking, onStart, timeoutNanos, new ReadToken());
+    }
+
+    /**
+     * Waits for the next input line, on behalf of the given token.
+     * A cancellation of the token while this read waits for other reads to complete takes effect when this read becomes active.
+     * @see #read(boolean, Runnable, long)
+     * @throws ReadCancelledException if the token or this read has been cancelled
+     */
+    String read(boolean masking, Runnable onStart, long timeoutNanos, ReadToken token) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        if(timeoutNanos < 0) {
+            readerLock.lockInterruptibly();
+        } else if(!readerLock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+            throw new ReadTimeoutException("No input provided within " + Duration.ofNanos(timeoutNanos));
+        }
+        try {
+            lock.lockInterruptibly();
+            try {
+                token.register(this::wakeUpReader);
+                this.input = null;
+                this.masking = masking;
+                this.activeToken = token;
+                this.reading = true;
+                if(onStart != null) onStart.run();
+                while(input == null) {
+                    if(token.isCancelled()) throw new ReadCancelledException("read cancelled");
+                    if(timeoutNanos < 0) {
+                        inputAvailable.await();
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if(remaining <= 0) throw new ReadTimeoutException("No input provided within " + Duration.ofNanos(timeoutNanos));
+                        inputAvailable.awaitNanos(remaining);
+                    }
+                }
+                return input;
+            } finally {
+                if(activeToken == token) {
+                    reading = false;
+                    this.masking = false;
+                    this.activeToken = null;
+                }
+                token.unregister();
+                lock.unlock();
+            }
+        } finally {
+            readerLock.unlock();
+        }
+    }
+
+    /** Cancels the active read, if any. */
+    void cancel() {
+        lock.lock();
+        try {
+            if(reading && input == null) activeToken.cancel();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void wakeUpReader() {
+        lock.lock();
+        try {
+            inputAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delivers an input line to the active read.
+     * @return false, if no read is waiting for input.
+     */
+    boolean complete(String text) {
+        if(text == null) throw new IllegalArgumentException("text is null");
+        lock.lock();
+        try {
+            if(!isWaiting() || !activeToken.consumeInput()) return false;
+            input = text;
+            inputAvailable.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns true if a read is active, has not been cancelled and its input has not yet been provided. */
+    boolean isWaiting() {
+        lock.lock();
+        try {
+            return reading && input == null && !activeToken.isCancelled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns true if the active read requested input masking. */
+    boolean isMasking() {
+        lock.lock();
+        try {
+            return reading && masking;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
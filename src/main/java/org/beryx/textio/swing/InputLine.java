@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing;
+
+/**
+ * The input line edited by the user in a {@link VirtualSwingTextTerminal}.
+ * It holds the typed characters and the position of the caret, which is always between 0 and the length of the input.
+ */
+class InputLine {
+    private final MaskedInput chars = new MaskedInput();
+    private int caret = 0;
+
+    int length() {
+        return chars.length();
+    }
+
+    int getCaret() {
+        return caret;
+    }
+
+    String getText() {
+        return chars.getText();
+    }
+
+    /** Inserts the text at the caret position and moves the caret after it. */
+    void insert(String text) {
+        if(text == null || text.isEmpty()) return;
+        chars.replace(caret, 0, text);
+        caret += text.length();
+    }
+
+    /** Removes the character before the caret (Backspace). */
+    void deleteBackward() {
+        if(caret == 0) return;
+        chars.replace(caret - 1, 1, null);
+        caret--;
+    }
+
+    /** Removes the character after the caret (Delete). */
+    void deleteForward() {
+        if(caret == chars.length()) return;
+        chars.replace(caret, 1, null);
+    }
+
+    /** Moves the caret to the given position, clamped to the bounds of the input. */
+    void moveCaretTo(int position) {
+        caret = Math.max(0, Math.min(chars.length(), position));
+    }
+
+    /** Removes all characters, overwriting them in the buffer. */
+    void clear() {
+        chars.clear();
+        caret = 0;
+    }
+}
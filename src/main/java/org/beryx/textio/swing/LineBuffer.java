@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing;
+
+import javax.swing.text.Segment;
+import java.util.Arrays;
+
+/**
+ * Append-only storage for the lines displayed by a {@link VirtualSwingTextTerminal}.
+ * <br>The characters of all lines are kept in a single array, without line separators,
+ * and the lines are identified by their start offsets. There is no per-line object.
+ * <br>The last line is the current line, to which further text is appended. There is always at least one (possibly empty) line.
+ * <br>Instances of this class are not thread-safe.
+ */
+class LineBuffer {
+    private char[] chars = new char[8192];
+    private int length = 0;
+    private int[] lineStarts = new int[1024];
+    private int lineCount = 1;
+    private int maxLineLength = 0;
+
+    /**
+     * Appends the characters between <tt>start</tt> (inclusive) and <tt>end</tt> (exclusive).
+     * A <tt>\n</tt> character terminates the current line.
+     */
+    void append(CharSequence text, int start, int end) {
+        ensureCharCapacity(length + end - start);
+        for(int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if(ch == '\n') {
+                newLine();
+            } else {
+                chars[length++] = ch;
+            }
+        }
+        maxLineLength = Math.max(maxLineLength, length - lineStarts[lineCount - 1]);
+    }
+
+    int getLineCount() {
+        return lineCount;
+    }
+
+    /** Returns the length of the longest line. */
+    int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    /** Returns the length of the current (last) line. */
+    int getLastLineLength() {
+        return length - lineStarts[lineCount - 1];
+    }
+
+    /**
+     * Makes the segment refer to the characters of the given line. No characters are copied.
+     * The segment is valid only until the next modification of this buffer.
+     */
+    void getLine(int line, Segment segment) {
+        if(line < 0 || line >= lineCount) throw new IllegalArgumentException("line = " + line + ", lineCount = " + lineCount);
+        int start = lineStarts[line];
+        int end = (line + 1 < lineCount) ? lineStarts[line + 1] : length;
+        segment.array = chars;
+        segment.offset = start;
+        segment.count = end - start;
+    }
+
+    /**
+     * Removes the oldest lines, if the number of lines exceeds <tt>maxLines</tt> by more than 1/8.
+     * In this case, only the last <tt>maxLines</tt> lines are kept.
+     * @return the number of removed lines
+     */
+    int trim(int maxLines) {
+        if(maxLines <= 0) return 0;
+        int excess = lineCount - maxLines;
+        if(excess <= maxLines / 8) return 0;
+        int offset = lineStarts[excess];
+        System.arraycopy(chars, offset, chars, 0, length - offset);
+        length -= offset;
+        lineCount = maxLines;
+        maxLineLength = 0;
+        for(int i = 0; i < lineCount; i++) {
+            lineStarts[i] = lineStarts[i + excess] - offset;
+            if(i > 0) maxLineLength = Math.max(maxLineLength, lineStarts[i] - lineStarts[i - 1]);
+        }
+        maxLineLength = Math.max(maxLineLength, getLastLineLength());
+        return excess;
+    }
+
+    private void newLine() {
+        maxLineLength = Math.max(maxLineLength, getLastLineLength());
+        if(lineCount == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, 2 * lineCount);
+        lineStarts[lineCount++] = length;
+    }
+
+    private void ensureCharCapacity(int capacity) {
+        if(capacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, 2 * chars.length));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing;
+
+import java.util.Arrays;
+
+/**
+ * Holds the characters actually typed by the user while input masking is active.
+ * The document of the text area contains only their masked form.
+ * <br>Edits are applied in place, so their cost depends only on the length of the input.
+ */
+class MaskedInput {
+    static final char MASK_CHAR = '*';
+
+    private char[] chars = new char[32];
+    private int length = 0;
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Replaces <tt>removeLength</tt> characters starting at <tt>start</tt> with the given text.
+     * @param text the text to be inserted. May be null.
+     */
+    void replace(int start, int removeLength, String text) {
+        if(start < 0 || removeLength < 0 || start + removeLength > length) {
+            throw new IllegalArgumentException("start = " + start + ", removeLength = " + removeLength + ", length = " + length);
+        }
+        int insertLength = (text == null) ? 0 : text.length();
+        int newLength = length - removeLength + insertLength;
+        if(newLength > chars.length) {
+            char[] newChars = new char[Math.max(newLength, 2 * chars.length)];
+            System.arraycopy(chars, 0, newChars, 0, length);
+            Arrays.fill(chars, '\0');
+            chars = newChars;
+        }
+        System.arraycopy(chars, start + removeLength, chars, start + insertLength, length - start - removeLength);
+        if(insertLength > 0) text.getChars(0, insertLength, chars, start);
+        if(newLength < length) Arrays.fill(chars, newLength, length, '\0');
+        length = newLength;
+    }
+
+    String getText() {
+        return new String(chars, 0, length);
+    }
+
+    /** Removes all characters, overwriting them in the buffer. */
+    void clear() {
+        Arrays.fill(chars, 0, length, '\0');
+        length = 0;
+    }
+
+    /** Returns a string of the same length as <tt>text</tt>, containing only mask characters. */
+    static String mask(String text) {
+        if(text == null) return null;
+        char[] masked = new char[text.length()];
+        Arrays.fill(masked, MASK_CHAR);
+        return new String(masked);
+    }
+}
@@ -15,7 +15,11 @@
  */
 package org.beryx.textio.swing;
 
+import org.beryx.textio.ReadInterruptedException;
+import org.beryx.textio.ReadToken;
 import org.beryx.textio.TextTerminal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import javax.swing.text.*;
@@ -23,23 +27,50 @@ import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link TextTerminal} implemented using a {@link JTextArea} inside a {@link JFrame}.
+ * <br>The text printed by the application is queued and appended to the text area on the event dispatch thread,
+ * in batches containing all the text printed since the previous batch.
+ * The queued text is always displayed before reading the input.
+ * <br>The number of lines kept in the text area is limited by the {@link #setScrollbackLimit(int) scrollback limit}.
+ * <br>The Swing components can be {@link #SwingTextTerminal(boolean) created asynchronously}, in order to remove their initialization
+ * from the critical path of the application startup. The time needed for initialization is logged at debug level.
  */
 public class SwingTextTerminal implements TextTerminal {
+    private static final Logger logger =  LoggerFactory.getLogger(SwingTextTerminal.class);
 
-    private final JFrame frame;
-    private final JTextArea textArea;
+    public static final int DEFAULT_SCROLLBACK_LIMIT = 10000;
 
-    private String extendedPrompt = "";
-    private String unmaskedContent = "";
+    /** Created by {@link #createComponents()}. After construction, they are accessed only on the event dispatch thread or after awaiting {@link #componentsCreated}. */
+    private JFrame frame;
+    private JTextArea textArea;
+    private final CountDownLatch componentsCreated = new CountDownLatch(1);
 
-    private final Object editLock = new Object();
-    private volatile boolean readMode = false;
-    private volatile boolean writeMode = false;
-    private volatile boolean inputMasking = false;
-    private volatile String input;
+    /** The exception thrown while creating the Swing components, or null. Written before {@link #componentsCreated} is counted down. */
+    private volatile Throwable componentsFailure;
+
+    /** The offset in the document at which the user input starts. Everything before this offset has been printed by the application. */
+    private int promptEnd = 0;
+
+    /** The characters typed by the user, if input masking is active. The document contains only their masked form. */
+    private final MaskedInput maskedInput = new MaskedInput();
+
+    private volatile int scrollbackLimit = DEFAULT_SCROLLBACK_LIMIT;
+
+    /** The text printed since the last batch has been appended to the text area. Guarded by {@link #outputLock}. */
+    private final StringBuilder pendingOutput = new StringBuilder();
+    private boolean flushScheduled = false;
+    private final ReentrantLock outputLock = new ReentrantLock();
+    private boolean trimming = false;
+
+    /** Coordinates the reading thread with the event dispatch thread. Its lock also guards the editing state of the terminal. */
+    private final InputHandoff handoff = new InputHandoff();
+    private boolean writeMode = false;
 
     private boolean initialized = false;
 
@@ -51,22 +82,32 @@ public class SwingTextTerminal implements TextTerminal {
     private class TerminalDocumentFilter extends DocumentFilter {
         @Override
         public void insertString(DocumentFilter.FilterBypass fb, int offset, String text, AttributeSet attrs) throws BadLocationException {
-            changeText(fb, attrs, offset, text, t -> super.insertString(fb, offset, t, attrs));
+            changeText(fb, offset, 0, text, t -> super.insertString(fb, offset, t, attrs));
         }
 
         @Override
         public void replace(DocumentFilter.FilterBypass fb, int offset, int length, String text, AttributeSet attrs) throws BadLocationException {
-            changeText(fb, attrs, offset, text, t -> super.replace(fb, offset, length, t, attrs));
+            changeText(fb, offset, length, text, t -> super.replace(fb, offset, length, t, attrs));
         }
 
         @Override
         public void remove(DocumentFilter.FilterBypass fb, int offset, int length) throws BadLocationException {
-            changeText(fb, null, offset, null, t -> super.remove(fb, offset, length));
+            changeText(fb, offset, length, null, t -> super.remove(fb, offset, length));
         }
 
-        private void changeText(DocumentFilter.FilterBypass fb, AttributeSet attrs, int offset, String text, TextChanger textChanger) throws BadLocationException {
-            synchronized (editLock) {
-                if (isEditAllowedAt(offset)) {
+        /**
+         * Applies an edit of the document, if permitted.
+         * If input masking is active, the edit is applied to the {@link #maskedInput} and its masked form is applied to the document.
+         * @param length the number of characters removed by the edit
+         */
+        private void changeText(DocumentFilter.FilterBypass fb, int offset, int length, String text, TextChanger textChanger) throws BadLocationException {
+            handoff.lock.lock();
+            try {
+                boolean readMode = handoff.isWaiting();
+                boolean inputMasking = handoff.isMasking();
+                if(trimming) {
+                    textChanger.changeText(text);
+                } else if (isEditAllowedAt(offset, readMode)) {
                     Document doc = fb.getDocument();
                     int pos = -1;
                     if(text != null && readMode) {
@@ -75,48 +116,81 @@ public class SwingTextTerminal implements TextTerminal {
                     }
                     try {
                         if(readMode && inputMasking) {
-                            textChanger.changeText(text);
-                            int caretPosition = textArea.getCaretPosition();
-
-                            fb.remove(0, doc.getLength());
-                            fb.insertString(0, unmaskedContent, attrs);
-                            textChanger.changeText(text);
-                            unmaskedContent = doc.getText(0, doc.getLength());
-
-                            maskContent(fb, attrs);
-                            textArea.setCaretPosition(caretPosition);
+                            maskedInput.replace(offset - promptEnd, length, text);
+                            textChanger.changeText(MaskedInput.mask(text));
                         } else {
                             textChanger.changeText(text);
-                            unmaskedContent = doc.getText(0, doc.getLength());
                         }
                     } catch (Exception e) {
                         if(e instanceof BadLocationException) throw (BadLocationException)e;
                         else throw new BadLocationException(e.toString(), offset);
                     }
                     if(pos >= 0) {
-                        input = unmaskedContent.substring(extendedPrompt.length());
-                        unmaskedContent = doc.getText(0, doc.getLength());
-                        editLock.notifyAll();
+                        String line = inputMasking ? maskedInput.getText() : doc.getText(promptEnd, doc.getLength() - promptEnd);
+                        maskedInput.clear();
+                        handoff.complete(line);
                     }
                 }
+            } finally {
+                handoff.lock.unlock();
             }
         }
 
-        private void maskContent(FilterBypass fb, AttributeSet attrs) throws BadLocationException {
-            StringBuilder maskedSb = new StringBuilder(extendedPrompt);
-            int maskedLen = unmaskedContent.length() - extendedPrompt.length();
-            for(int i=0; i<maskedLen; i++) maskedSb.append('*');
-            fb.remove(0, fb.getDocument().getLength());
-            fb.insertString(0, maskedSb.toString(), attrs);
+        private boolean isEditAllowedAt(int offset, boolean readMode) {
+            return (readMode || writeMode)&& textArea.getCaretPosition() >= promptEnd && offset >= promptEnd;
+        }
+    }
+
+    public SwingTextTerminal() {
+        this(false);
+    }
+
+    /**
+     * @param asyncInitialization if true, the constructor returns immediately and the Swing components are created and laid out
+     * on the event dispatch thread. Printing does not wait for the initialization, while {@link #read(boolean)},
+     * {@link #getFrame()} and {@link #getTextArea()} wait only for the part of the initialization that is still in progress.
+     */
+    public SwingTextTerminal(boolean asyncInitialization) {
+        if(asyncInitialization) {
+            long startTime = System.nanoTime();
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    packFrame();
+                    logger.debug("Swing components initialized asynchronously in {} ms.", (System.nanoTime() - startTime) / 1_000_000);
+                } catch (RuntimeException | Error e) {
+                    logger.error("Cannot initialize the Swing components.", e);
+                }
+            });
+        } else {
+            createComponents();
         }
+    }
 
-        private boolean isEditAllowedAt(int offset) {
-            return (readMode || writeMode)&& textArea.getCaretPosition() >= extendedPrompt.length() && offset >= extendedPrompt.length();
+    /**
+     * Creates the Swing components, if not already created.
+     * If the creation fails, the waiting threads are released and the failure is reported to them by {@link #awaitComponents()}.
+     */
+    private void createComponents() {
+        if(frame != null) return;
+        checkComponentsFailure();
+        try {
+            doCreateComponents();
+        } catch (RuntimeException | Error e) {
+            componentsFailure = e;
+            throw e;
+        } finally {
+            componentsCreated.countDown();
         }
     }
 
-    public SwingTextTerminal() {
-        frame = new JFrame("Text Terminal");
+    private void checkComponentsFailure() {
+        Throwable failure = componentsFailure;
+        if(failure != null) throw new IllegalStateException("The Swing components could not be created.", failure);
+    }
+
+    private void doCreateComponents() {
+        long startTime = System.nanoTime();
+        JFrame frame = new JFrame("Text Terminal");
         textArea = new JTextArea(30, 80);
         textArea.setLineWrap(true);
 
@@ -135,8 +209,11 @@ public class SwingTextTerminal implements TextTerminal {
         WindowListener exitListener = new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                synchronized (editLock) {
-                    if(readMode || writeMode) return;
+                handoff.lock.lock();
+                try {
+                    if(handoff.isWaiting() || writeMode) return;
+                } finally {
+                    handoff.lock.unlock();
                 }
                 frame.dispose();
             }
@@ -145,54 +222,141 @@ public class SwingTextTerminal implements TextTerminal {
 
         frame.add(scroll);
         frame.pack();
+        this.frame = frame;
+        logger.debug("Swing components created in {} ms.", (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    /**
+     * Waits until the Swing components have been created. On the event dispatch thread, it creates them if necessary.
+     * @throws IllegalStateException if the creation of the components has failed
+     */
+    private void awaitComponents() {
+        if(componentsCreated.getCount() == 0) {
+            checkComponentsFailure();
+            return;
+        }
+        if(SwingUtilities.isEventDispatchThread()) {
+            createComponents();
+            return;
+        }
+        long startTime = System.nanoTime();
+        boolean interrupted = false;
+        while(true) {
+            try {
+                componentsCreated.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) Thread.currentThread().interrupt();
+        logger.debug("Waited {} ms for the Swing components.", (System.nanoTime() - startTime) / 1_000_000);
+        checkComponentsFailure();
     }
 
     public JFrame getFrame() {
+        awaitComponents();
         return frame;
     }
 
     public JTextArea getTextArea() {
+        awaitComponents();
         return textArea;
     }
 
+    public int getScrollbackLimit() {
+        return scrollbackLimit;
+    }
+
+    /**
+     * Configures the maximum number of lines kept in the text area.
+     * When the limit is exceeded, the oldest lines are removed.
+     * In order to avoid trimming the document on each print, up to 1/8 of the limit may be exceeded before the oldest lines are removed.
+     * @param scrollbackLimit the maximum number of lines, or 0 if the number of lines should not be limited.
+     */
+    public void setScrollbackLimit(int scrollbackLimit) {
+        if(scrollbackLimit < 0) throw new IllegalArgumentException("scrollbackLimit = " + scrollbackLimit);
+        this.scrollbackLimit = scrollbackLimit;
+    }
+
     @Override
     public String read(boolean masking) {
-        display();
+        return read(masking, null);
+    }
+
+    /** Cancels the active read, including a read without timeout. Reads that start after this call are not affected. */
+    @Override
+    public void cancelRead() {
+        handoff.cancel();
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout) {
+        return read(masking, timeout, new ReadToken());
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout, ReadToken token) {
+        runOnEventDispatchThreadBeforeRead(() -> {
+            flushOutput();
+            showFrame();
+        });
         try {
-            synchronized (editLock) {
-                input = null;
-                inputMasking = masking;
-                readMode = true;
-                while(input == null) {
-                    editLock.wait();
-                }
-                return input;
-            }
+            return handoff.read(masking, maskedInput::clear, (timeout == null) ? -1 : timeout.toNanos(), token);
         } catch(InterruptedException e) {
-            throw new RuntimeException("read interrupted", e);
+            Thread.currentThread().interrupt();
+            throw new ReadInterruptedException("read interrupted", e);
         } finally {
-            synchronized (editLock) {
-                inputMasking = false;
-                readMode = false;
-            }
             println();
         }
     }
 
     @Override
     public void rawPrint(String message) {
-        display();
+        rawPrint(message, 0, message.length());
+    }
+
+    /** Queues the text to be appended to the text area on the event dispatch thread. */
+    @Override
+    public void rawPrint(CharSequence text, int start, int end) {
+        outputLock.lock();
         try {
-            synchronized (editLock) {
-                writeMode = true;
-                textArea.append(message);
-                extendedPrompt = textArea.getText();
-                textArea.setCaretPosition(extendedPrompt.length());
+            pendingOutput.append(text, start, end);
+            if(!flushScheduled) {
+                flushScheduled = true;
+                SwingUtilities.invokeLater(this::flushOutput);
             }
         } finally {
-            synchronized (editLock) {
-                writeMode = false;
-            }
+            outputLock.unlock();
+        }
+    }
+
+    /**
+     * Appends the queued text to the text area, with a single document update and caret update.
+     * It must be called on the event dispatch thread.
+     */
+    private void flushOutput() {
+        String text;
+        outputLock.lock();
+        try {
+            flushScheduled = false;
+            if(pendingOutput.length() == 0) return;
+            text = pendingOutput.toString();
+            pendingOutput.setLength(0);
+        } finally {
+            outputLock.unlock();
+        }
+        showFrame();
+        handoff.lock.lock();
+        try {
+            writeMode = true;
+            textArea.append(text);
+            trimScrollback();
+            promptEnd = textArea.getDocument().getLength();
+            textArea.setCaretPosition(promptEnd);
+        } finally {
+            writeMode = false;
+            handoff.lock.unlock();
         }
     }
 
@@ -201,16 +365,86 @@ public class SwingTextTerminal implements TextTerminal {
         rawPrint("\n");
     }
 
+    /** Removes the oldest lines, if the number of lines exceeds the scrollback limit by more than the permitted slack. */
+    private void trimScrollback() {
+        int limit = scrollbackLimit;
+        if(limit <= 0) return;
+        int excess = textArea.getLineCount() - limit;
+        if(excess <= limit / 8) return;
+        trimming = true;
+        try {
+            textArea.getDocument().remove(0, textArea.getLineStartOffset(excess));
+        } catch (BadLocationException e) {
+            throw new IllegalStateException("Cannot trim the scrollback", e);
+        } finally {
+            trimming = false;
+        }
+    }
+
     public void display() {
+        runOnEventDispatchThread(this::showFrame);
+    }
+
+    private void showFrame() {
+        packFrame();
+        if(!frame.isVisible()) frame.setVisible(true);
+    }
+
+    /** Creates the Swing components, if necessary, and lays them out the first time this method is called. */
+    private void packFrame() {
+        createComponents();
         if(!initialized) {
             initialized = true;
             frame.pack();
         }
-        frame.setVisible(true);
     }
 
+    /** Displays the queued text and releases the screen resources of the frame. */
     @Override
     public void dispose() {
-        frame.dispose();
+        runOnEventDispatchThread(() -> {
+            createComponents();
+            flushOutput();
+            frame.dispose();
+        });
+    }
+
+    /** Runs the task on the event dispatch thread and waits for its completion. */
+    static void runOnEventDispatchThread(Runnable task) {
+        try {
+            invokeAndWait(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for the event dispatch thread", e);
+        }
+    }
+
+    /**
+     * Runs the task that prepares a read on the event dispatch thread and waits for its completion.
+     * @throws ReadInterruptedException if the calling thread is interrupted before or while waiting
+     */
+    static void runOnEventDispatchThreadBeforeRead(Runnable task) {
+        try {
+            if(Thread.interrupted()) throw new InterruptedException();
+            invokeAndWait(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadInterruptedException("read interrupted", e);
+        }
+    }
+
+    private static void invokeAndWait(Runnable task) throws InterruptedException {
+        if(SwingUtilities.isEventDispatchThread()) {
+            task.run();
+        } else {
+            try {
+                SwingUtilities.invokeAndWait(task);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if(cause instanceof RuntimeException) throw (RuntimeException)cause;
+                if(cause instanceof Error) throw (Error)cause;
+                throw new RuntimeException(cause);
+            }
+        }
     }
 }
@@ -22,11 +22,22 @@ import java.awt.*;
 
 /**
  * If the system is not headless, it provides a {@link SwingTextTerminal}.
+ * <br>If the system property {@value #ASYNC_INITIALIZATION_PROPERTY} is set to <tt>true</tt>,
+ * the Swing components of the terminal are {@link SwingTextTerminal#SwingTextTerminal(boolean) created asynchronously},
+ * starting as soon as the terminal is provided.
  */
 public class SwingTextTerminalProvider implements TextTerminalProvider {
+    public static final String ASYNC_INITIALIZATION_PROPERTY = "org.beryx.textio.swing.asyncInitialization";
+
     public TextTerminal getTextTerminal() {
         if (isHeadless()) return null;
-        return new SwingTextTerminal();
+        return new SwingTextTerminal(Boolean.getBoolean(ASYNC_INITIALIZATION_PROPERTY));
+    }
+
+    /** Each terminal has its own frame. */
+    @Override
+    public boolean providesIndependentTerminals() {
+        return true;
     }
 
     private static boolean isHeadless() {
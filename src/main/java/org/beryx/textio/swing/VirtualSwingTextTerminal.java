@@ -0,0 +1,302 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing;
+
+import org.beryx.textio.ReadInterruptedException;
+import org.beryx.textio.ReadToken;
+import org.beryx.textio.TextTerminal;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A Swing-based {@link TextTerminal} similar to the {@link SwingTextTerminal}, intended for sessions that produce large amounts of output.
+ * <br>Instead of a {@link JTextArea}, it uses a component that stores the lines in a compact append-only structure
+ * and paints only the lines in the visible part of the viewport.
+ * <br>Compared to the {@link SwingTextTerminal}, it has the following limitations:
+ * <ul>
+ *     <li>long lines are not wrapped;</li>
+ *     <li>text cannot be selected or copied, neither from the output nor from the input line;</li>
+ *     <li>the input line supports only typing, caret movement (Left, Right, Home, End), Backspace, Delete
+ *     and pasting with Ctrl+V or Shift+Insert.</li>
+ * </ul>
+ * <br>As in the {@link SwingTextTerminal}, the output is appended on the event dispatch thread in coalesced batches
+ * and the number of lines kept is limited by the {@link #setScrollbackLimit(int) scrollback limit}.
+ * <br>This terminal can be selected by setting the system property
+ * {@value org.beryx.textio.TextIoFactory#TEXT_TERMINAL_CLASS_PROPERTY} to <tt>org.beryx.textio.swing.VirtualSwingTextTerminal</tt>.
+ */
+public class VirtualSwingTextTerminal implements TextTerminal {
+    public static final int DEFAULT_SCROLLBACK_LIMIT = 1_000_000;
+
+    private final JFrame frame;
+    private final LineBuffer lines = new LineBuffer();
+    private final VirtualTextView view;
+
+    /** The characters typed by the user. Guarded by the lock of the {@link #handoff}. */
+    private final InputLine typedInput = new InputLine();
+
+    private final InputHandoff handoff = new InputHandoff();
+
+    private volatile int scrollbackLimit = DEFAULT_SCROLLBACK_LIMIT;
+
+    private final StringBuilder pendingOutput = new StringBuilder();
+    private boolean flushScheduled = false;
+    private final ReentrantLock outputLock = new ReentrantLock();
+
+    private boolean initialized = false;
+
+    public VirtualSwingTextTerminal() {
+        frame = new JFrame("Text Terminal");
+        view = new VirtualTextView(lines);
+        view.setBackground(Color.black);
+        view.setForeground(Color.green);
+        view.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 15));
+        view.addKeyListener(new InputKeyListener());
+        view.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                view.requestFocusInWindow();
+            }
+        });
+
+        JScrollPane scroll = new JScrollPane(view, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED, JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        scroll.getViewport().setBackground(Color.black);
+        frame.add(scroll);
+
+        frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if(handoff.isWaiting()) return;
+                frame.dispose();
+            }
+        });
+        frame.pack();
+    }
+
+    /** Edits the input line while the terminal is in read mode. Key events are delivered on the event dispatch thread. */
+    private class InputKeyListener extends KeyAdapter {
+        @Override
+        public void keyTyped(KeyEvent e) {
+            char ch = e.getKeyChar();
+            if(ch == '\n' || ch == '\r') {
+                completeInput();
+            } else if(ch == '\b') {
+                editInput(InputLine::deleteBackward);
+            } else if(ch >= ' ' && ch != KeyEvent.VK_DELETE && !e.isControlDown() && !e.isAltDown()) {
+                editInput(input -> input.insert(String.valueOf(ch)));
+            }
+        }
+
+        @Override
+        public void keyPressed(KeyEvent e) {
+            switch(e.getKeyCode()) {
+                case KeyEvent.VK_LEFT: editInput(input -> input.moveCaretTo(input.getCaret() - 1)); break;
+                case KeyEvent.VK_RIGHT: editInput(input -> input.moveCaretTo(input.getCaret() + 1)); break;
+                case KeyEvent.VK_HOME: editInput(input -> input.moveCaretTo(0)); break;
+                case KeyEvent.VK_END: editInput(input -> input.moveCaretTo(input.length())); break;
+                case KeyEvent.VK_DELETE: editInput(InputLine::deleteForward); break;
+                case KeyEvent.VK_V: if(e.isControlDown()) paste(); break;
+                case KeyEvent.VK_INSERT: if(e.isShiftDown()) paste(); break;
+            }
+        }
+    }
+
+    /** Inserts the first line of the clipboard text at the caret. If the text contains a line break, the input is completed. */
+    private void paste() {
+        try {
+            String text = (String)Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
+            int pos = text.indexOf('\n');
+            editInput(input -> input.insert((pos < 0) ? text : text.substring(0, pos)));
+            if(pos >= 0) completeInput();
+        } catch (Exception ex) {
+            // No text available in the clipboard. Nothing to paste.
+        }
+    }
+
+    public JFrame getFrame() {
+        return frame;
+    }
+
+    public int getScrollbackLimit() {
+        return scrollbackLimit;
+    }
+
+    /**
+     * Configures the maximum number of lines kept by the terminal.
+     * When the limit is exceeded by more than 1/8, the oldest lines are removed.
+     * @param scrollbackLimit the maximum number of lines, or 0 if the number of lines should not be limited.
+     */
+    public void setScrollbackLimit(int scrollbackLimit) {
+        if(scrollbackLimit < 0) throw new IllegalArgumentException("scrollbackLimit = " + scrollbackLimit);
+        this.scrollbackLimit = scrollbackLimit;
+    }
+
+    @Override
+    public String read(boolean masking) {
+        return read(masking, null);
+    }
+
+    /** Cancels the active read, including a read without timeout. Reads that start after this call are not affected. */
+    @Override
+    public void cancelRead() {
+        handoff.cancel();
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout) {
+        return read(masking, timeout, new ReadToken());
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout, ReadToken token) {
+        SwingTextTerminal.runOnEventDispatchThreadBeforeRead(() -> {
+            flushOutput();
+            showFrame();
+        });
+        try {
+            return handoff.read(masking, () -> {
+                typedInput.clear();
+                SwingUtilities.invokeLater(this::updateInputLine);
+            }, (timeout == null) ? -1 : timeout.toNanos(), token);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SwingUtilities.invokeLater(this::updateInputLine);
+            throw new ReadInterruptedException("read interrupted", e);
+        } catch(RuntimeException e) {
+            SwingUtilities.invokeLater(this::updateInputLine);
+            throw e;
+        } finally {
+            println();
+        }
+    }
+
+    private void editInput(Consumer<InputLine> edit) {
+        handoff.lock.lock();
+        try {
+            if(!handoff.isWaiting()) return;
+            edit.accept(typedInput);
+        } finally {
+            handoff.lock.unlock();
+        }
+        updateInputLine();
+    }
+
+    /** Moves the typed input (in its displayed form) into the line buffer and wakes up the reading thread. */
+    private void completeInput() {
+        handoff.lock.lock();
+        try {
+            if(!handoff.isWaiting()) return;
+            String text = typedInput.getText();
+            lines.append(handoff.isMasking() ? MaskedInput.mask(text) : text, 0, text.length());
+            typedInput.clear();
+            handoff.complete(text);
+        } finally {
+            handoff.lock.unlock();
+        }
+        view.setInputText("", -1);
+    }
+
+    private void updateInputLine() {
+        String displayedInput;
+        int caret;
+        handoff.lock.lock();
+        try {
+            boolean reading = handoff.isWaiting();
+            String text = reading ? typedInput.getText() : "";
+            displayedInput = handoff.isMasking() ? MaskedInput.mask(text) : text;
+            caret = reading ? typedInput.getCaret() : -1;
+        } finally {
+            handoff.lock.unlock();
+        }
+        view.setInputText(displayedInput, caret);
+    }
+
+    @Override
+    public void rawPrint(String message) {
+        rawPrint(message, 0, message.length());
+    }
+
+    /** Queues the text to be appended on the event dispatch thread. */
+    @Override
+    public void rawPrint(CharSequence text, int start, int end) {
+        outputLock.lock();
+        try {
+            pendingOutput.append(text, start, end);
+            if(!flushScheduled) {
+                flushScheduled = true;
+                SwingUtilities.invokeLater(this::flushOutput);
+            }
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    @Override
+    public void println() {
+        rawPrint("\n");
+    }
+
+    /** Appends the queued text to the line buffer and updates the view. It must be called on the event dispatch thread. */
+    private void flushOutput() {
+        outputLock.lock();
+        try {
+            flushScheduled = false;
+            if(pendingOutput.length() == 0) return;
+            lines.append(pendingOutput, 0, pendingOutput.length());
+            lines.trim(scrollbackLimit);
+            pendingOutput.setLength(0);
+        } finally {
+            outputLock.unlock();
+        }
+        showFrame();
+        view.contentChanged();
+    }
+
+    public void display() {
+        SwingTextTerminal.runOnEventDispatchThread(this::showFrame);
+    }
+
+    private void showFrame() {
+        if(!initialized) {
+            initialized = true;
+            frame.pack();
+        }
+        if(!frame.isVisible()) {
+            frame.setVisible(true);
+            view.requestFocusInWindow();
+        }
+    }
+
+    /** Displays the queued text and releases the screen resources of the frame. */
+    @Override
+    public void dispose() {
+        SwingTextTerminal.runOnEventDispatchThread(() -> {
+            flushOutput();
+            frame.dispose();
+        });
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing;
+
+import javax.swing.*;
+import javax.swing.text.Segment;
+import java.awt.*;
+
+/**
+ * A component that displays the content of a {@link LineBuffer}, followed by the input line being edited.
+ * <br>Only the lines intersecting the clip area are painted, therefore the painting cost depends on the size of the viewport,
+ * not on the number of lines. The lines are not wrapped.
+ * <br>All methods must be called on the event dispatch thread.
+ */
+class VirtualTextView extends JComponent implements Scrollable {
+    private static final long serialVersionUID = 1L;
+
+    private final LineBuffer lines;
+    private final Segment segment = new Segment();
+    private String inputText = "";
+    private int caretPosition = -1;
+    private Dimension lastPreferredSize;
+
+    VirtualTextView(LineBuffer lines) {
+        this.lines = lines;
+        setOpaque(true);
+        setFocusable(true);
+    }
+
+    /**
+     * Sets the text displayed after the last line.
+     * @param inputText the (possibly masked) input typed by the user
+     * @param caretPosition the position of the caret in the input text, or -1 if the caret should not be displayed
+     */
+    void setInputText(String inputText, int caretPosition) {
+        this.inputText = (inputText == null) ? "" : inputText;
+        this.caretPosition = Math.min(caretPosition, this.inputText.length());
+        contentChanged();
+    }
+
+    /** Updates the size of the component after the content has changed and scrolls to the last line. */
+    void contentChanged() {
+        Dimension size = getPreferredSize();
+        if(!size.equals(lastPreferredSize)) {
+            lastPreferredSize = size;
+            revalidate();
+        }
+        int lineHeight = getLineHeight();
+        scrollRectToVisible(new Rectangle(0, size.height - lineHeight, 1, lineHeight));
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if(isPreferredSizeSet()) return super.getPreferredSize();
+        FontMetrics fm = getFontMetrics(getFont());
+        Insets insets = getInsets();
+        int columns = Math.max(lines.getMaxLineLength(), lines.getLastLineLength() + inputText.length()) + 1;
+        return new Dimension(insets.left + insets.right + columns * fm.charWidth('m'),
+                insets.top + insets.bottom + lines.getLineCount() * fm.getHeight());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if(clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setColor(getForeground());
+        g.setFont(getFont());
+        FontMetrics fm = g.getFontMetrics();
+        int lineHeight = fm.getHeight();
+        Insets insets = getInsets();
+        int lineCount = lines.getLineCount();
+        int first = Math.max(0, (clip.y - insets.top) / lineHeight);
+        int last = Math.min(lineCount - 1, (clip.y + clip.height - insets.top) / lineHeight);
+        for(int i = first; i <= last; i++) {
+            int y = insets.top + i * lineHeight;
+            lines.getLine(i, segment);
+            g.drawChars(segment.array, segment.offset, segment.count, insets.left, y + fm.getAscent());
+            if(i == lineCount - 1) {
+                int x = insets.left + fm.charsWidth(segment.array, segment.offset, segment.count);
+                g.drawString(inputText, x, y + fm.getAscent());
+                if(caretPosition >= 0) {
+                    x += fm.stringWidth(inputText.substring(0, caretPosition));
+                    g.fillRect(x, y, 2, lineHeight);
+                }
+            }
+        }
+    }
+
+    private int getLineHeight() {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        FontMetrics fm = getFontMetrics(getFont());
+        return new Dimension(80 * fm.charWidth('m'), 30 * fm.getHeight());
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        FontMetrics fm = getFontMetrics(getFont());
+        return (orientation == SwingConstants.VERTICAL) ? fm.getHeight() : fm.charWidth('m');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return (orientation == SwingConstants.VERTICAL) ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = getParent();
+        return (parent instanceof JViewport) && parent.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return (parent instanceof JViewport) && parent.getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.system;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reads lines of text from a {@link ReadableByteChannel}.
+ * <br>The bytes are read into a reusable buffer and decoded incrementally.
+ * Lines are terminated by <tt>\n</tt>, <tt>\r\n</tt> or <tt>\r</tt>. The line terminators are not included in the returned strings.
+ * <br>The end of the input is signaled by a null return value of {@link #readLine()} and by {@link #isEndOfInput()}.
+ * <br>Instances of this class are not thread-safe.
+ */
+public class ChannelLineReader implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer byteBuffer;
+    private final CharBuffer charBuffer;
+    private final StringBuilder lineBuilder = new StringBuilder();
+
+    private boolean channelExhausted = false;
+    private boolean decoderFlushing = false;
+    private boolean endOfInput = false;
+    private boolean skipLF = false;
+
+    public ChannelLineReader(ReadableByteChannel channel) {
+        this(channel, Charset.defaultCharset(), DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelLineReader(ReadableByteChannel channel, Charset charset, int bufferSize) {
+        if(channel == null) throw new IllegalArgumentException("channel is null");
+        if(charset == null) throw new IllegalArgumentException("charset is null");
+        if(bufferSize < 16) throw new IllegalArgumentException("bufferSize = " + bufferSize);
+        this.channel = channel;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.byteBuffer = ByteBuffer.allocate(bufferSize);
+        this.byteBuffer.flip();
+        this.charBuffer = CharBuffer.allocate((int)Math.ceil(bufferSize * decoder.maxCharsPerByte()));
+        this.charBuffer.flip();
+    }
+
+    /**
+     * Reads the next line of text.
+     * @return the line without its terminator, or null if the end of the input has been reached.
+     */
+    public String readLine() throws IOException {
+        lineBuilder.setLength(0);
+        while(true) {
+            char[] chars = charBuffer.array();
+            int start = charBuffer.position();
+            int end = charBuffer.limit();
+            if(skipLF && start < end) {
+                skipLF = false;
+                if(chars[start] == '\n') start++;
+            }
+            for(int i = start; i < end; i++) {
+                char ch = chars[i];
+                if(ch == '\n' || ch == '\r') {
+                    skipLF = (ch == '\r');
+                    charBuffer.position(i + 1);
+                    if(lineBuilder.length() == 0) return new String(chars, start, i - start);
+                    lineBuilder.append(chars, start, i - start);
+                    return lineBuilder.toString();
+                }
+            }
+            lineBuilder.append(chars, start, end - start);
+            charBuffer.position(end);
+            if(!fill()) {
+                endOfInput = true;
+                return (lineBuilder.length() > 0) ? lineBuilder.toString() : null;
+            }
+        }
+    }
+
+    /**
+     * Returns true if a complete line has already been read from the channel,
+     * so that the next call of {@link #readLine()} does not need to read from the channel.
+     */
+    public boolean hasBufferedLine() {
+        char[] chars = charBuffer.array();
+        int start = charBuffer.position();
+        int end = charBuffer.limit();
+        if(skipLF && start < end && chars[start] == '\n') start++;
+        for(int i = start; i < end; i++) {
+            if(chars[i] == '\n' || chars[i] == '\r') return true;
+        }
+        return false;
+    }
+
+    /** Returns true if a previous call of {@link #readLine()} has reached the end of the input. */
+    public boolean isEndOfInput() {
+        return endOfInput;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Decodes the next chunk of characters into the (previously consumed) char buffer.
+     * @return false, if no more characters are available.
+     */
+    private boolean fill() throws IOException {
+        charBuffer.clear();
+        while(charBuffer.position() == 0) {
+            if(decoderFlushing) {
+                if(decoder.flush(charBuffer).isUnderflow()) break;
+            } else if(channelExhausted) {
+                if(decoder.decode(byteBuffer, charBuffer, true).isUnderflow()) decoderFlushing = true;
+            } else {
+                CoderResult result = decoder.decode(byteBuffer, charBuffer, false);
+                if(result.isUnderflow() && charBuffer.position() == 0) {
+                    byteBuffer.compact();
+                    int count = channel.read(byteBuffer);
+                    byteBuffer.flip();
+                    if(count < 0) channelExhausted = true;
+                }
+            }
+        }
+        charBuffer.flip();
+        return charBuffer.hasRemaining();
+    }
+}
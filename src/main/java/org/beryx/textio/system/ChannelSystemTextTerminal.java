@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.system;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A {@link SystemTextTerminal} that reads its input from an arbitrary {@link ReadableByteChannel}.
+ * By default, it reads directly from the file descriptor of the standard input, bypassing the buffering of {@link System#in},
+ * which makes it suitable for processing large piped input files.
+ */
+public class ChannelSystemTextTerminal extends SystemTextTerminal {
+    public ChannelSystemTextTerminal() {
+        this(new FileInputStream(FileDescriptor.in));
+    }
+
+    private ChannelSystemTextTerminal(FileInputStream in) {
+        super(in.getChannel(), in);
+    }
+
+    /** Creates a terminal reading from the given channel. Unless a line is already buffered, reads with timeout wait for the background thread of {@link SystemTextTerminal}. */
+    public ChannelSystemTextTerminal(ReadableByteChannel inChannel) {
+        super(inChannel, null);
+    }
+}
@@ -15,30 +15,253 @@
  */
 package org.beryx.textio.system;
 
+import org.beryx.textio.ReadCancelledException;
+import org.beryx.textio.ReadInterruptedException;
+import org.beryx.textio.ReadTimeoutException;
+import org.beryx.textio.ReadToken;
 import org.beryx.textio.TextTerminal;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
-import java.util.Scanner;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * A {@link TextTerminal} implemented using {@link System#out}, {@link System#in} and {@link Scanner}.
- * It is not capable to mask input strings, therefore not recommended when reading sensitive data.
+ * A {@link TextTerminal} implemented using {@link System#out} and {@link System#in}.
+ * The input is read by a {@link ChannelLineReader}. When the end of the input is reached, all reads throw a {@link NoSuchElementException}.
+ * <br>Reads with a {@link #read(boolean, Duration) timeout} or a {@link #read(boolean, Duration, ReadToken) token} read directly
+ * if a line is already buffered or if the input stream has available bytes.
+ * Otherwise, they hand the blocking read over to a background thread (started at the first such read) and wait for its result.
+ * A line read by the background thread after the waiting read timed out or was cancelled is returned by the next read.
+ * Only these reads can be {@link #cancelRead() cancelled}.
+ * <br>It is not capable to mask input strings, therefore not recommended when reading sensitive data.
  */
 public class SystemTextTerminal implements TextTerminal {
-    private final Scanner scanner = new Scanner(System.in);
     private final PrintStream out = System.out;
+    private final ChannelLineReader lineReader;
+    private final InputStream availabilitySource;
+
+    private final ReentrantLock inputLock = new ReentrantLock();
+    private final Condition inputChanged = inputLock.newCondition();
+
+    // Guarded by inputLock
+    private final Set<ReadToken> activeReads = new HashSet<>();
+    private boolean readerBusy = false;
+    private boolean backgroundReadRequested = false;
+    private boolean lineReady = false;
+    private String readyLine;
+    private IOException readyFailure;
+    private Thread backgroundReader;
+
+    public SystemTextTerminal() {
+        this(Channels.newChannel(System.in), System.in);
+    }
+
+    /**
+     * @param inChannel the channel from which the input is read
+     * @param availabilitySource the stream used to check if input is available on the channel.
+     *                           If null, reads with timeout always hand the blocking read over to the background thread.
+     */
+    protected SystemTextTerminal(ReadableByteChannel inChannel, InputStream availabilitySource) {
+        this.lineReader = new ChannelLineReader(inChannel);
+        this.availabilitySource = availabilitySource;
+    }
 
     @Override
     public String read(boolean masking) {
-        return scanner.nextLine();
+        inputLock.lock();
+        try {
+            while(readerBusy && !lineReady) {
+                inputChanged.awaitUninterruptibly();
+            }
+            if(lineReady) return takeReadyLine();
+            readerBusy = true;
+        } finally {
+            inputLock.unlock();
+        }
+        return readDirectly();
     }
 
+    @Override
+    public String read(boolean masking, Duration timeout) {
+        return read(masking, timeout, new ReadToken());
+    }
+
+    @Override
+    public String read(boolean masking, Duration timeout, ReadToken token) {
+        long deadline = (timeout == null) ? 0 : System.nanoTime() + timeout.toNanos();
+        inputLock.lock();
+        try {
+            token.register(this::wakeUpReaders);
+            activeReads.add(token);
+            try {
+                while(true) {
+                    if(token.isCancelled()) throw new ReadCancelledException("read cancelled");
+                    if(lineReady) {
+                        if(!token.consumeInput()) throw new ReadCancelledException("read cancelled");
+                        return takeReadyLine();
+                    }
+                    if(!readerBusy) {
+                        if(isInputAvailable()) {
+                            if(!token.consumeInput()) throw new ReadCancelledException("read cancelled");
+                            readerBusy = true;
+                            break;
+                        }
+                        requestBackgroundRead();
+                    }
+                    if(timeout == null) {
+                        inputChanged.await();
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if(remaining <= 0) throw new ReadTimeoutException("No input provided within " + timeout);
+                        inputChanged.awaitNanos(remaining);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReadInterruptedException("read interrupted", e);
+            } finally {
+                activeReads.remove(token);
+                token.unregister();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+        return readDirectly();
+    }
+
+    /** Cancels the pending reads with timeout or token. Reads that start after this call are not affected. */
+    @Override
+    public void cancelRead() {
+        inputLock.lock();
+        try {
+            for(ReadToken token : activeReads.toArray(new ReadToken[0])) {
+                token.cancel();
+            }
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    private void wakeUpReaders() {
+        inputLock.lock();
+        try {
+            inputChanged.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    /** Must be called with inputLock held and no read in progress. */
+    private boolean isInputAvailable() {
+        if(lineReader.hasBufferedLine() || lineReader.isEndOfInput()) return true;
+        if(availabilitySource == null) return false;
+        try {
+            return availabilitySource.available() > 0;
+        } catch (IOException e) {
+            // Let the subsequent read report the problem.
+            return true;
+        }
+    }
+
+    /** Must be called without holding inputLock, after the calling thread has set readerBusy. */
+    private String readDirectly() {
+        try {
+            String line = lineReader.readLine();
+            if(line == null) throw new NoSuchElementException("No line found");
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException("read failed", e);
+        } finally {
+            inputLock.lock();
+            try {
+                readerBusy = false;
+                inputChanged.signalAll();
+            } finally {
+                inputLock.unlock();
+            }
+        }
+    }
+
+    /** Must be called with inputLock held. */
+    private String takeReadyLine() {
+        lineReady = false;
+        inputChanged.signalAll();
+        if(readyFailure != null) {
+            IOException failure = readyFailure;
+            readyFailure = null;
+            throw new UncheckedIOException("read failed", failure);
+        }
+        if(readyLine == null) throw new NoSuchElementException("No line found");
+        String line = readyLine;
+        readyLine = null;
+        return line;
+    }
+
+    /** Must be called with inputLock held. */
+    private void requestBackgroundRead() {
+        readerBusy = true;
+        backgroundReadRequested = true;
+        if(backgroundReader == null) {
+            backgroundReader = new Thread(this::readInBackground, "textio-input-reader");
+            backgroundReader.setDaemon(true);
+            backgroundReader.start();
+        } else {
+            inputChanged.signalAll();
+        }
+    }
+
+    private void readInBackground() {
+        while(true) {
+            inputLock.lock();
+            try {
+                while(!backgroundReadRequested) {
+                    inputChanged.awaitUninterruptibly();
+                }
+                backgroundReadRequested = false;
+            } finally {
+                inputLock.unlock();
+            }
+            String line = null;
+            IOException failure = null;
+            try {
+                line = lineReader.readLine();
+            } catch (IOException e) {
+                failure = e;
+            }
+            inputLock.lock();
+            try {
+                readyLine = line;
+                readyFailure = failure;
+                lineReady = true;
+                readerBusy = false;
+                inputChanged.signalAll();
+            } finally {
+                inputLock.unlock();
+            }
+        }
+    }
     @Override
     public void rawPrint(String message) {
         out.print(message);
         out.flush();
     }
 
+    /** Returns true if a {@link System#console() console} is available, that is, if neither the standard input nor the standard output has been redirected. */
+    @Override
+    public boolean isInteractive() {
+        return System.console() != null;
+    }
+
     @Override
     public void println() {
         out.println();
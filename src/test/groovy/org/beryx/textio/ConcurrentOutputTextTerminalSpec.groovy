@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import org.beryx.textio.nio.NioTextTerminal
+import org.beryx.textio.system.SystemTextTerminal
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.Pipe
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.Executor
+import java.util.stream.Collectors
+
+@Timeout(30)
+class ConcurrentOutputTextTerminalSpec extends Specification {
+    static { String.metaClass.stripAll = {-> TestUtil.stripAll(delegate)} }
+
+    def delegate = new MockTerminal()
+    def executor = { Runnable task -> task.run() } as Executor
+
+    def "should print background lines above the active prompt and redraw the prompt"() {
+        given:
+        ConcurrentOutputTextTerminal terminal
+        def delegate = new MockTerminal() {
+            @Override
+            String read(boolean masking) {
+                Thread.start { terminal.println("progress: 50%") }.join()
+                super.read(masking)
+            }
+        }
+        terminal = new ConcurrentOutputTextTerminal(delegate, executor, false)
+        delegate.inputs.add("John")
+
+        when:
+        def name = new TextIO(terminal).newStringInputReader().read("Name")
+
+        then:
+        name == "John"
+        delegate.output == '''
+            Name:
+            progress: 50%
+            Name: John
+        '''.stripAll()
+    }
+
+    def "should erase the prompt line using ANSI escape sequences"() {
+        given:
+        def output = new StringBuilder()
+        def ansiTerminal = new TextTerminal() {
+            ConcurrentOutputTextTerminal decorator
+            String read(boolean masking) {
+                Thread.start { decorator.println("done") }.join()
+                "42"
+            }
+            void rawPrint(String message) { output << message }
+            void println() { output << '\n' }
+        }
+        def terminal = new ConcurrentOutputTextTerminal(ansiTerminal, executor, true)
+        ansiTerminal.decorator = terminal
+
+        when:
+        terminal.print("Answer: ")
+        def answer = terminal.read(false)
+
+        then:
+        answer == "42"
+        output.toString() == "Answer: \u001B[2K\u001B[1Gdone\nAnswer: "
+    }
+
+    def "should not interleave lines printed by different threads"() {
+        given:
+        def terminal = new ConcurrentOutputTextTerminal(delegate, executor, false)
+
+        when:
+        def threads = (1..4).collect { id ->
+            Thread.start {
+                100.times { i ->
+                    terminal.print("thread-$id ")
+                    Thread.yield()
+                    terminal.print("line-$i")
+                    terminal.println()
+                }
+            }
+        }
+        threads*.join()
+        terminal.dispose()
+        def lines = delegate.output.readLines()
+
+        then:
+        lines.size() == 400
+        lines.every { it ==~ /thread-\d line-\d+/ }
+        (1..4).every { id -> lines.findAll { it.startsWith("thread-$id ") } == (0..99).collect { "thread-$id line-$it" } }
+    }
+
+    def "should display the background lines of a buffered terminal while the read is pending"() {
+        given:
+        def input = Pipe.open()
+        def output = new ByteArrayOutputStream()
+        def nio = new NioTextTerminal(input.source(), Channels.newChannel(output), StandardCharsets.UTF_8, 1024, true)
+        def terminal = new ConcurrentOutputTextTerminal(nio, { Runnable task -> new Thread(task).start() } as Executor, false)
+        String name = null
+        def reader = Thread.start { name = new TextIO(terminal).newStringInputReader().read("Name") }
+        while(!output.toString("UTF-8").contains("Name: ")) Thread.sleep(1)
+
+        when:
+        Thread.start { terminal.println("progress: 50%") }.join()
+        while(!output.toString("UTF-8").contains("progress: 50%")) Thread.sleep(1)
+        def displayedWhileReading = reader.alive
+        input.sink().write(ByteBuffer.wrap("John\n".bytes))
+        reader.join()
+
+        then:
+        displayedWhileReading
+        name == "John"
+    }
+
+    def "should end the stream at the end of the input of the decorated terminal"() {
+        given:
+        def input = new ByteArrayInputStream("first\nsecond\n".bytes)
+        def system = new SystemTextTerminal(Channels.newChannel(input), input)
+        def terminal = new ConcurrentOutputTextTerminal(system, executor, false)
+
+        when:
+        def values = new TextIO(terminal).newStringInputReader().stream(null).collect(Collectors.toList())
+
+        then:
+        values == ["first", "second"]
+    }
+}
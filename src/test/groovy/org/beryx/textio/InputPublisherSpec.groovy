@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import org.beryx.textio.InputPublisher.Subscriber
+import org.beryx.textio.InputPublisher.Subscription
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+class InputPublisherSpec extends Specification {
+    def terminal = new MockTerminal()
+    def textIO = new TextIO(terminal)
+
+    def setup() {
+        textIO.executor = { Runnable task -> task.run() } as Executor
+    }
+
+    static class RecordingSubscriber<T> implements Subscriber<T> {
+        Subscription subscription
+        final List<T> items = []
+        Throwable error
+        boolean completed
+
+        void onSubscribe(Subscription subscription) { this.subscription = subscription }
+        void onNext(T item) { items << item }
+        void onError(Throwable throwable) { error = throwable }
+        void onComplete() { completed = true }
+    }
+
+    def "should read values only when there is demand"() {
+        given:
+        terminal.inputs.addAll(["1", "x", "2", "3", null])
+        def invalidInputs = []
+        def publisher = textIO.newIntInputReader().publisher({ sVal, messages -> invalidInputs << sVal }, "Value")
+        def subscriber = new RecordingSubscriber<Integer>()
+
+        when:
+        publisher.subscribe(subscriber)
+
+        then:
+        terminal.readCalls == 0
+
+        when:
+        subscriber.subscription.request(2)
+
+        then:
+        subscriber.items == [1, 2]
+        invalidInputs == ["x"]
+        terminal.readCalls == 3
+        !subscriber.completed
+
+        when:
+        subscriber.subscription.request(5)
+
+        then:
+        subscriber.items == [1, 2, 3]
+        subscriber.completed
+        subscriber.error == null
+        terminal.readCalls == 5
+    }
+
+    def "should stop reading after cancel"() {
+        given:
+        terminal.inputs.addAll(["1", "2", "3"])
+        def publisher = textIO.newIntInputReader().publisher(null, "Value")
+        def subscriber = new RecordingSubscriber<Integer>() {
+            void onNext(Integer item) {
+                super.onNext(item)
+                if(item == 2) subscription.cancel()
+            }
+        }
+
+        when:
+        publisher.subscribe(subscriber)
+        subscriber.subscription.request(Long.MAX_VALUE)
+
+        then:
+        subscriber.items == [1, 2]
+        !subscriber.completed
+        terminal.readCalls == 2
+    }
+
+    def "should not cancel the read of another thread when cancelled while waiting for the terminal"() {
+        given:
+        int cancelReadCalls = 0
+        def terminal = new MockTerminal() {
+            void cancelRead() { cancelReadCalls++ }
+        }
+        terminal.inputs.add("1")
+        def scheduler = new PromptScheduler(PromptScheduler.Policy.FIFO)
+        def textIO = new TextIO(terminal)
+        textIO.promptScheduler = scheduler
+        Thread worker = null
+        textIO.executor = { Runnable task -> worker = Thread.start { task.run() } } as Executor
+        def subscriber = new RecordingSubscriber<Integer>()
+        textIO.newIntInputReader().publisher(null, "Value").subscribe(subscriber)
+        scheduler.acquire(0, null)
+        subscriber.subscription.request(1)
+        while(scheduler.queueLength == 0) Thread.sleep(1)
+
+        when:
+        subscriber.subscription.cancel()
+        worker.join(10000)
+        scheduler.release()
+
+        then:
+        !worker.alive
+        cancelReadCalls == 0
+        terminal.readCalls == 0
+        subscriber.items.empty
+        subscriber.error == null
+    }
+
+    def "should signal an error for a non-positive request"() {
+        given:
+        def subscriber = new RecordingSubscriber<Integer>()
+        textIO.newIntInputReader().publisher(null, "Value").subscribe(subscriber)
+
+        when:
+        subscriber.subscription.request(0)
+
+        then:
+        subscriber.error instanceof IllegalArgumentException
+        terminal.readCalls == 0
+    }
+
+    def "should reject a second subscriber"() {
+        given:
+        def publisher = textIO.newIntInputReader().publisher(null, "Value")
+        def first = new RecordingSubscriber<Integer>()
+        def second = new RecordingSubscriber<Integer>()
+
+        when:
+        publisher.subscribe(first)
+        publisher.subscribe(second)
+
+        then:
+        first.error == null
+        second.error instanceof IllegalStateException
+    }
+}
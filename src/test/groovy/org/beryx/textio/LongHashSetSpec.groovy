@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import spock.lang.Specification
+
+class LongHashSetSpec extends Specification {
+    def "should contain exactly the given values"() {
+        given:
+        def random = new Random(42)
+        long[] values = (1..20000).collect { random.nextLong() } + [0L, Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L]
+        def expected = values as Set
+        def set = new LongHashSet(values)
+
+        expect:
+        set.size() == expected.size()
+        values.every { set.contains(it) }
+        (1..20000).collect { random.nextLong() }.every { set.contains(it) == expected.contains(it) }
+        !set.contains(1L)
+    }
+
+    def "should handle an empty set and sequential int values"() {
+        expect:
+        !new LongHashSet(new long[0]).contains(0L)
+
+        when:
+        def set = LongHashSet.of((0..<4096).collect { it * 1024 } as int[])
+
+        then:
+        set.size() == 4096
+        set.contains(0L)
+        set.contains(4095L * 1024)
+        !set.contains(1023L)
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+@Unroll
+class NumberParserSpec extends Specification {
+    def parser = new NumberParser()
+
+    static Long parseLongOrNull(String s, long typeMin, long typeMax) {
+        try {
+            long val = Long.parseLong(s)
+            return (val >= typeMin && val <= typeMax) ? val : null
+        } catch(NumberFormatException e) {
+            return null
+        }
+    }
+
+    static Double parseDoubleOrNull(String s) {
+        try {
+            return Double.parseDouble(s)
+        } catch(NumberFormatException e) {
+            return null
+        } catch(NullPointerException e) {
+            return null
+        }
+    }
+
+    static final List<String> INTEGER_INPUTS = [
+            null, '', '-', '+', '0', '-0', '+7', '42', '-42', '007', '1_000', '12a', 'a12', ' 12', '12 ', '1.0', '--1',
+            '2147483647', '2147483648', '-2147483648', '-2147483649',
+            '9223372036854775807', '9223372036854775808', '-9223372036854775808', '-9223372036854775809',
+            '99999999999999999999', '\u0661\u0662'
+    ]
+
+    def "should parse #s.inspect() as an int like Integer.parseInt"() {
+        given:
+        Long expected = parseLongOrNull(s, Integer.MIN_VALUE, Integer.MAX_VALUE)
+
+        when:
+        int status = parser.parseInteger(s, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE)
+
+        then:
+        status == ((expected == null) ? NumberParser.INVALID_FORMAT : NumberParser.VALID)
+        expected == null || parser.longValue == expected
+
+        where:
+        s << INTEGER_INPUTS
+    }
+
+    def "should parse #s.inspect() as a long like Long.parseLong"() {
+        given:
+        Long expected = parseLongOrNull(s, Long.MIN_VALUE, Long.MAX_VALUE)
+
+        when:
+        int status = parser.parseInteger(s, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE)
+
+        then:
+        status == ((expected == null) ? NumberParser.INVALID_FORMAT : NumberParser.VALID)
+        expected == null || parser.longValue == expected
+
+        where:
+        s << INTEGER_INPUTS
+    }
+
+    def "should parse #s.inspect() as a double like Double.parseDouble"() {
+        given:
+        Double expected = parseDoubleOrNull(s)
+
+        when:
+        int status = parser.parseDouble(s, Double.NEGATIVE_INFINITY, Double.NaN)
+
+        then:
+        status == ((expected == null) ? NumberParser.INVALID_FORMAT : NumberParser.VALID)
+        expected == null || Double.compare(parser.doubleValue, expected) == 0
+
+        where:
+        s << [null, '', '-', '.', '+.', '1', '-1.5', '.5', '5.', '1e10', '1E-3', '1e', '1e+', '2.5f', '2.5D', '2.5x', '1,5',
+              ' 3.5 ', 'NaN', '-Infinity', 'Inf', '0x1p3', '0x1.8P-1', '1.2.3', 'e5', '1e5.0', '--1']
+    }
+
+    def "should report out-of-range values in the same pass"() {
+        expect:
+        parser.parseInteger(s, Integer.MIN_VALUE, Integer.MAX_VALUE, 10, 20) == status
+
+        where:
+        s     | status
+        '9'   | NumberParser.OUT_OF_RANGE
+        '10'  | NumberParser.VALID
+        '20'  | NumberParser.VALID
+        '21'  | NumberParser.OUT_OF_RANGE
+        'abc' | NumberParser.INVALID_FORMAT
+    }
+
+    def "should parse concurrently with the same reader"() {
+        given:
+        def reader = new IntInputReader({ new MockTerminal() })
+        def mismatches = Collections.synchronizedList([])
+
+        when:
+        def threads = (0..3).collect { t ->
+            Thread.start {
+                for(int i = 0; i < 20000; i++) {
+                    int val = t * 1000000 + i
+                    def result = reader.parse(String.valueOf(val))
+                    if(result.value != val) mismatches << "$val -> $result.value"
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        mismatches.empty
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import spock.lang.Specification
+
+class PossibleValuesIndexSpec extends Specification {
+    static class Code {
+        final String value
+        Code(String value) { this.value = value }
+
+        @Override
+        boolean equals(Object o) {
+            o instanceof Code && ((Code)o).value.equalsIgnoreCase(value)
+        }
+    }
+
+    def "should find hashable values and null"() {
+        given:
+        def index = new PossibleValuesIndex<String>(['a', 'b', null, 'c'])
+
+        expect:
+        index.contains('b')
+        index.contains(null)
+        !index.contains('d')
+        index.size() == 4
+        index.get(3) == 'c'
+    }
+
+    def "should use equals for values whose class does not override hashCode"() {
+        given:
+        def index = new PossibleValuesIndex<Code>([new Code('x'), new Code('y')])
+
+        expect:
+        index.contains(new Code('Y'))
+        !index.contains(new Code('z'))
+    }
+
+    def "should accept a default value that is equal but not hash-consistent"() {
+        given:
+        def reader = new GenericInputReader<Code>({ new MockTerminal() }, { new InputReader.ParseResult<Code>(new Code(it)) })
+                .withPossibleValues(new Code('x'), new Code('y'))
+                .withDefaultValue(new Code('Y'))
+
+        when:
+        reader.checkConfiguration()
+
+        then:
+        noExceptionThrown()
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import org.beryx.textio.PromptScheduler.Policy
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+import java.time.Duration
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+@Timeout(30)
+@Unroll
+class PromptSchedulerSpec extends Specification {
+    def grantOrder = new ConcurrentLinkedQueue<String>()
+
+    private Thread startWaiting(PromptScheduler scheduler, String name, int priority, Duration timeout) {
+        int queueLength = scheduler.queueLength
+        def thread = Thread.start {
+            scheduler.acquire(priority, timeout)
+            grantOrder << name
+            scheduler.release()
+        }
+        while(scheduler.queueLength == queueLength) Thread.sleep(1)
+        thread
+    }
+
+    def "should grant the terminal in #policy order"() {
+        given:
+        def scheduler = new PromptScheduler(policy)
+        scheduler.acquire(0, null)
+        def threads = [
+                startWaiting(scheduler, "low-late", 1, Duration.ofSeconds(20)),
+                startWaiting(scheduler, "high-none", 5, null),
+                startWaiting(scheduler, "mid-early", 3, Duration.ofSeconds(10)),
+                startWaiting(scheduler, "high-early", 5, Duration.ofSeconds(10)),
+        ]
+
+        when:
+        scheduler.release()
+        threads*.join()
+
+        then:
+        grantOrder as List == expectedOrder
+
+        where:
+        policy          | expectedOrder
+        Policy.FIFO     | ["low-late", "high-none", "mid-early", "high-early"]
+        Policy.PRIORITY | ["high-none", "high-early", "mid-early", "low-late"]
+        Policy.DEADLINE | ["mid-early", "high-early", "low-late", "high-none"]
+    }
+
+    def "should time out while waiting for the terminal"() {
+        given:
+        def scheduler = new PromptScheduler(Policy.FIFO)
+        scheduler.acquire(0, null)
+        Throwable error = null
+
+        when:
+        Thread.start {
+            try {
+                scheduler.acquire(0, Duration.ofMillis(100))
+            } catch (Throwable t) {
+                error = t
+            }
+        }.join()
+
+        then:
+        error instanceof ReadTimeoutException
+        scheduler.queueLength == 0
+    }
+
+    def "should cancel a waiting thread"() {
+        given:
+        def scheduler = new PromptScheduler(Policy.FIFO)
+        scheduler.acquire(0, null)
+        Throwable error = null
+        def thread = Thread.start {
+            try {
+                scheduler.acquire(0, null)
+            } catch (Throwable t) {
+                error = t
+            }
+        }
+        while(scheduler.queueLength == 0) Thread.sleep(1)
+
+        when:
+        def cancelled = scheduler.cancelWaiting(thread)
+        thread.join()
+
+        then:
+        cancelled
+        error instanceof ReadCancelledException
+        scheduler.queueLength == 0
+        !scheduler.cancelWaiting(Thread.currentThread())
+    }
+
+    def "should cancel a wait through its token, even before the thread is queued"() {
+        given:
+        def scheduler = new PromptScheduler(Policy.FIFO)
+        scheduler.acquire(0, null)
+        def cancelledToken = new ReadToken()
+        cancelledToken.cancel()
+        def token = new ReadToken()
+        Throwable error = null
+        def thread = Thread.start {
+            try {
+                scheduler.acquire(0, null, token)
+            } catch (Throwable t) {
+                error = t
+            }
+        }
+        while(scheduler.queueLength == 0) Thread.sleep(1)
+
+        when:
+        Throwable earlyError = null
+        Thread.start {
+            try {
+                scheduler.acquire(0, null, cancelledToken)
+            } catch (Throwable t) {
+                earlyError = t
+            }
+        }.join()
+
+        then:
+        earlyError instanceof ReadCancelledException
+        scheduler.queueLength == 1
+
+        when:
+        token.cancel()
+        thread.join()
+
+        then:
+        error instanceof ReadCancelledException
+        scheduler.queueLength == 0
+    }
+
+    def "should allow reentrant acquisition and reject release by a thread that does not hold the terminal"() {
+        given:
+        def scheduler = new PromptScheduler(Policy.FIFO)
+
+        when:
+        scheduler.acquire(0, null)
+        scheduler.acquire(0, null)
+        scheduler.release()
+        scheduler.release()
+        scheduler.release()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "should not schedule the reads by default"() {
+        expect:
+        new TextIO(new MockTerminal()).promptScheduler == null
+    }
+
+    def "should not interleave the prompts of concurrent readers"() {
+        given:
+        def terminal = new MockTerminal()
+        terminal.inputs.addAll(["1", "2", "3", "4", "5", "6", "7", "8"])
+        def textIO = new TextIO(terminal)
+        textIO.promptScheduler = new PromptScheduler(Policy.FIFO)
+
+        when:
+        def threads = (1..4).collect { id ->
+            Thread.start { 2.times { textIO.newIntInputReader().read("Reader $id") } }
+        }
+        threads*.join()
+
+        then:
+        terminal.output.readLines().every { it ==~ /Reader \d: \d/ }
+        terminal.readCalls == 8
+    }
+
+    def "should release the terminal before passing a streamed value downstream"() {
+        given:
+        def terminal = new MockTerminal()
+        terminal.inputs.addAll(["1", "one", "2", "two"])
+        def textIO = new TextIO(terminal)
+        textIO.promptScheduler = new PromptScheduler(Policy.FIFO)
+        def nameReader = textIO.newStringInputReader()
+
+        when:
+        def names = textIO.newIntInputReader().stream(null).limit(2).collect {
+            "$it:" + nameReader.readAsync("Name").get(10, TimeUnit.SECONDS)
+        }
+
+        then:
+        names == ["1:one", "2:two"]
+    }
+
+    def "should neither cancel the read of the terminal owner nor read after cancelling a read that is not yet queued"() {
+        given: "a scheduler that holds back the acquisition of other threads than the current one"
+        def testThread = Thread.currentThread()
+        def entered = new CountDownLatch(1)
+        def proceed = new CountDownLatch(1)
+        def scheduler = new PromptScheduler(Policy.FIFO) {
+            @Override
+            void acquire(int priority, Duration timeout, ReadToken token) {
+                if(Thread.currentThread() != testThread) {
+                    entered.countDown()
+                    proceed.await()
+                }
+                super.acquire(priority, timeout, token)
+            }
+        }
+        int cancelReadCalls = 0
+        def terminal = new MockTerminal() {
+            @Override
+            void cancelRead() { cancelReadCalls++ }
+        }
+        terminal.inputs << "John"
+        def textIO = new TextIO(terminal)
+        textIO.promptScheduler = scheduler
+        Thread worker = null
+        textIO.executor = { Runnable task -> worker = Thread.start { task.run() } } as Executor
+
+        when:
+        scheduler.acquire(0, null)
+        def future = textIO.newStringInputReader().readAsync("Name")
+        entered.await()
+        future.cancel(true)
+        proceed.countDown()
+        while(scheduler.queueLength == 0 && worker.alive) Thread.sleep(1)
+        scheduler.release()
+        worker.join(10000)
+
+        then:
+        future.cancelled
+        cancelReadCalls == 0
+        terminal.readCalls == 0
+        scheduler.queueLength == 0
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import org.beryx.textio.system.SystemTextTerminal
+import org.beryx.textio.swing.SwingTextTerminalProvider
+import org.slf4j.LoggerFactory
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class TextIoFactorySpec extends Specification {
+    static class SessionTerminal extends MockTerminal {}
+
+    /** Loads the library classes on its own, so that the classes loaded by a test can be inspected. */
+    static class IsolatingClassLoader extends URLClassLoader {
+        IsolatingClassLoader() {
+            super([TextIoFactory, LoggerFactory].collect { it.protectionDomain.codeSource.location } as URL[],
+                    ClassLoader.systemClassLoader.parent)
+        }
+
+        boolean isLoaded(Class<?> cls) {
+            findLoadedClass(cls.name) != null
+        }
+    }
+
+    def savedTerminalClass = System.getProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY)
+
+    def cleanup() {
+        if(savedTerminalClass != null) {
+            System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, savedTerminalClass)
+        } else {
+            System.clearProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY)
+        }
+    }
+
+    def "should create a new terminal of the discovered class for each session"() {
+        given:
+        System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, SessionTerminal.name)
+        def discovery = new TextIoFactory.Discovery()
+
+        when:
+        def first = discovery.newTerminal()
+        def second = discovery.newTerminal()
+
+        then:
+        discovery.firstTerminal instanceof SessionTerminal
+        first instanceof SessionTerminal
+        second instanceof SessionTerminal
+        [discovery.firstTerminal, first, second].unique(false) { System.identityHashCode(it) }.size() == 3
+    }
+
+    def "should cache the discovery result"() {
+        given:
+        System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, SessionTerminal.name)
+        def discovery = new TextIoFactory.Discovery()
+
+        when:
+        System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, MockTerminal.name)
+        def terminal = discovery.newTerminal()
+
+        then:
+        terminal instanceof SessionTerminal
+    }
+
+    def "should reject new sessions on terminals sharing the standard streams"() {
+        given:
+        System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, SystemTextTerminal.name)
+        def discovery = new TextIoFactory.Discovery()
+
+        when:
+        discovery.newTerminal()
+
+        then:
+        discovery.firstTerminal instanceof SystemTextTerminal
+        thrown(IllegalStateException)
+    }
+
+    def "should create TextIO sessions with the globally discovered terminal class"() {
+        given: "the global discovery has not been performed yet, because no other spec uses the global TextIO"
+        System.setProperty(TextIoFactory.TEXT_TERMINAL_CLASS_PROPERTY, SessionTerminal.name)
+
+        when:
+        def global = TextIoFactory.textIO
+        def session = TextIoFactory.newTextIO()
+        def pool = TextIoFactory.newTextIoPool(1)
+        def pooled = pool.acquire()
+
+        then:
+        global.textTerminal instanceof SessionTerminal
+        session.textTerminal instanceof SessionTerminal
+        pooled.textTerminal instanceof SessionTerminal
+        !session.textTerminal.is(global.textTerminal)
+        !pooled.textTerminal.is(session.textTerminal)
+        TextIoFactory.textIO.is(global)
+
+        cleanup:
+        pool?.close()
+    }
+
+    @Unroll
+    def "should consider the environment headless: #expected, for headless=#headless, os=#os, DISPLAY=#display"() {
+        expect:
+        TextIoFactory.isKnownHeadless(headless, os, display) == expected
+
+        where:
+        headless | os           | display | expected
+        "true"   | "Windows 10" | null    | true
+        "false"  | "Linux"      | null    | false
+        null     | "Windows 10" | null    | false
+        null     | "Mac OS X"   | null    | false
+        null     | "Linux"      | null    | true
+        null     | "Linux"      | "  "    | true
+        null     | "Linux"      | ":0"    | false
+        null     | "FreeBSD"    | ":1.0"  | false
+    }
+
+    def "should read the java.awt.headless property"() {
+        given:
+        def saved = System.getProperty("java.awt.headless")
+
+        when:
+        System.setProperty("java.awt.headless", "true")
+
+        then:
+        TextIoFactory.isKnownHeadless()
+
+        when:
+        System.setProperty("java.awt.headless", "false")
+
+        then:
+        !TextIoFactory.isKnownHeadless()
+
+        cleanup:
+        if(saved != null) System.setProperty("java.awt.headless", saved) else System.clearProperty("java.awt.headless")
+    }
+
+    def "should not load the Swing provider in a known headless environment"() {
+        given:
+        def saved = System.getProperty("java.awt.headless")
+        System.setProperty("java.awt.headless", "true")
+        def loader = new IsolatingClassLoader()
+
+        when:
+        def discovery = loader.loadClass(TextIoFactory.Discovery.name)
+        def method = discovery.getDeclaredMethod("getDefaultProviderFactories")
+        method.accessible = true
+        def providers = method.invoke(null).collect { it.get() }
+
+        then:
+        providers*.class*.simpleName == ['ConsoleTextTerminalProvider', 'SystemTextTerminalProvider']
+        loader.isLoaded(TextIoFactory)
+        !loader.isLoaded(SwingTextTerminalProvider)
+
+        cleanup:
+        if(saved != null) System.setProperty("java.awt.headless", saved) else System.clearProperty("java.awt.headless")
+        loader?.close()
+    }
+}
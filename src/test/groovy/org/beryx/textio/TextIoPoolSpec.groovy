@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+class TextIoPoolSpec extends Specification {
+    def created = []
+    def pool = new TextIoPool({ def t = new MockTerminal(); created << t; t }, 2)
+
+    def "should reuse released instances"() {
+        when:
+        def first = pool.acquire()
+        pool.release(first)
+        def second = pool.acquire()
+
+        then:
+        second.is(first)
+        created.size() == 1
+    }
+
+    def "should keep at most maxIdle idle instances"() {
+        when:
+        def instances = (1..3).collect { pool.acquire() }
+        instances.each { pool.release(it) }
+
+        then:
+        created.size() == 3
+        instances.collect { it.textTerminal }.unique().size() == 3
+        pool.idleCount == 2
+    }
+
+    def "should reset the settings of released instances"() {
+        given:
+        def textIO = pool.acquire()
+        textIO.executor = { Runnable task -> task.run() } as Executor
+        textIO.promptScheduler = new PromptScheduler(PromptScheduler.Policy.FIFO)
+
+        when:
+        pool.release(textIO)
+
+        then:
+        pool.acquire().is(textIO)
+        textIO.executor.is(TextIO.defaultExecutor)
+        textIO.promptScheduler == null
+    }
+
+    def "should dispose released instances rejected by the reset function"() {
+        given:
+        def disposed = []
+        def rejectingPool = new TextIoPool({
+            new MockTerminal() {
+                void dispose() { disposed << this }
+            }
+        }, 2, { false })
+        def textIO = rejectingPool.acquire()
+
+        when:
+        rejectingPool.release(textIO)
+
+        then:
+        disposed == [textIO.textTerminal]
+        rejectingPool.idleCount == 0
+        !rejectingPool.acquire().is(textIO)
+    }
+
+    def "should bind a TextIO to the current thread until the binding is closed"() {
+        given:
+        def outer = pool.acquire()
+        def inner = pool.acquire()
+
+        when:
+        def outerBinding = TextIoFactory.bind(outer)
+        def innerBinding = TextIoFactory.bind(inner)
+        def boundInner = TextIoFactory.textIO
+        def boundInOtherThread = null
+        Thread.start {
+            def binding = TextIoFactory.bind(outer)
+            boundInOtherThread = TextIoFactory.textIO
+            binding.close()
+        }.join()
+        innerBinding.close()
+        def boundOuter = TextIoFactory.textIO
+        def boundTerminal = TextIoFactory.textTerminal
+        outerBinding.close()
+
+        then:
+        boundInner.is(inner)
+        boundInOtherThread.is(outer)
+        boundOuter.is(outer)
+        boundTerminal.is(outer.textTerminal)
+    }
+
+    def "should reject closing a binding in another thread"() {
+        given:
+        def binding = TextIoFactory.bind(pool.acquire())
+        Throwable error = null
+
+        when:
+        Thread.start {
+            try {
+                binding.close()
+            } catch (Throwable t) {
+                error = t
+            }
+        }.join()
+        binding.close()
+
+        then:
+        error instanceof IllegalStateException
+    }
+}
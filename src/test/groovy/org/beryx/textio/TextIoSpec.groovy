@@ -21,6 +21,8 @@ import spock.lang.Unroll
 
 import java.awt.Point
 import java.time.DayOfWeek
+import java.util.concurrent.Executor
+import java.util.stream.LongStream
 
 @Unroll
 class TextIoSpec extends Specification {
@@ -515,4 +517,229 @@ class TextIoSpec extends Specification {
         terminal.readCalls == 3
         point == new Point(31, 97)
     }
+
+
+    def "should stream ints until the end of the input"() {
+        when:
+        terminal.inputs.addAll(["12", "abc", "", "3", "999", " 42 ", null])
+        def errors = []
+        def values = textIO.newIntInputReader()
+                .withMinVal(10)
+                .withMaxVal(100)
+                .withDefaultValue(50)
+                .stream({ sVal, errMessages -> errors << sVal } as InputReader.InvalidInputHandler, "Value")
+                .collect(java.util.stream.Collectors.toList())
+
+        then:
+        values == [12, 50, 42]
+        errors == ["abc", "3", "999"]
+        terminal.readCalls == 7
+    }
+
+    def "should stream numbered possible values lazily"() {
+        when:
+        terminal.inputs.addAll(["2", "7", "Jack", "1", "3"])
+        def names = textIO.newStringInputReader()
+                .withPossibleValues("Jack", "Emma", "Jane")
+                .stream(null)
+                .limit(3)
+                .collect(java.util.stream.Collectors.toList())
+
+        then:
+        names == ["Emma", "Jack", "Jane"]
+        terminal.readCalls == 5
+    }
+
+
+    def "should read a primitive int from a large set of allowed values"() {
+        when:
+        terminal.inputs.addAll(["8081", "70000", "0", "8080"])
+        int port = textIO.newIntInputReader()
+                .withMinVal(1)
+                .withMaxVal(65535)
+                .withAllowedValues((0..50000).collect { it * 2 } as int[])
+                .withPropertyName("port")
+                .readInt("Port")
+
+        then:
+        terminal.output == '''
+            Port: 8081
+            Invalid value for 'port'.
+            Expected an integer value between 1 and 65535.
+            The value must be one of the allowed values.
+            Port: 70000
+            Invalid value for 'port'.
+            Expected an integer value between 1 and 65535.
+            The value must be one of the allowed values.
+            Port: 0
+            Invalid value for 'port'.
+            Expected an integer value between 1 and 65535.
+            The value must be one of the allowed values.
+            Port: 8080
+        '''.stripAll()
+        port == 8080
+        terminal.readCalls == 4
+    }
+
+    def "should reject a default value that is not allowed"() {
+        when:
+        terminal.inputs << ""
+        textIO.newLongInputReader()
+                .withAllowedValues(1L, 2L, 3L)
+                .withDefaultValue(4L)
+                .readLong("Value")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+
+    def "should validate the input against a large list of possible values"() {
+        given:
+        def hosts = (1..50000).collect { "host-$it".toString() }
+        def reader = textIO.newStringInputReader()
+                .withPossibleValues(hosts)
+                .withNumberedPossibleValues(false)
+                .withDefaultValue("host-25000")
+
+        expect:
+        reader.parseAndCheck("host-49999").value == "host-49999"
+        reader.parseAndCheck("host-50001").errorMessages == ["Invalid value. You must enter one of the displayed values."]
+
+        when:
+        reader.withNumberedPossibleValues(true)
+
+        then:
+        reader.parseAndCheck("50000").value == "host-50000"
+        reader.parseAndCheck("50001").errorMessages == ["Invalid value. Enter a value between 1 and 50000."]
+    }
+
+    def "should display the possible values in pages and filter them by prefix"() {
+        when:
+        terminal.inputs.addAll([">", ">", "/ja", "4"])
+        def name = textIO.newStringInputReader()
+                .withPossibleValues("Jack", "Emma", "Jane", "Bill", "Laura")
+                .withPageSize(2)
+                .read("Choose your opponent")
+
+        then:
+        terminal.output == '''
+            Choose your opponent:
+              1: Jack
+              2: Emma
+            Page 1. Enter > for the next page, < for the previous page, /text to show only the values starting with text.
+            Enter your choice: >
+            Choose your opponent:
+              3: Jane
+              4: Bill
+            Page 2. Enter > for the next page, < for the previous page, /text to show only the values starting with text.
+            Enter your choice: >
+            Choose your opponent:
+              5: Laura
+            Page 3. Enter > for the next page, < for the previous page, /text to show only the values starting with text.
+            Enter your choice: /ja
+            Choose your opponent:
+              1: Jack
+              3: Jane
+            Page 1 of the values starting with 'ja'. Enter > for the next page, < for the previous page, /text to show only the values starting with text.
+            Enter your choice: 4
+        '''.stripAll()
+        terminal.readCalls == 4
+        name == 'Bill'
+    }
+
+    def "should choose possible values that look like page commands"() {
+        when:
+        terminal.inputs.addAll([">", "/", "/usr"])
+        def reader = textIO.newStringInputReader()
+                .withPossibleValues("/", "/usr", "/var", ">", "<")
+                .withNumberedPossibleValues(false)
+                .withPageSize(2)
+        def values = [reader.read("Path"), reader.read("Path"), reader.read("Path")]
+
+        then:
+        values == [">", "/", "/usr"]
+        terminal.readCalls == 3
+    }
+
+    def "should read from a lazily evaluated source of possible values"() {
+        given:
+        int formatted = 0
+        def reader = textIO.newLongInputReader()
+                .withPossibleValuesSource({ LongStream.rangeClosed(1, 1_000_000).boxed() })
+                .withValueFormatter({ formatted++; "#$it".toString() })
+                .withNumberedPossibleValues(false)
+                .withPageSize(3)
+
+        when:
+        terminal.inputs.addAll(["0", "999999"])
+        def value = reader.read("Value")
+
+        then:
+        terminal.output == '''
+            Value:
+              #1
+              #2
+              #3
+            Page 1. Enter > for the next page, < for the previous page, /text to show only the values starting with text.
+            Enter your choice: 0
+            Invalid value. You must enter one of the displayed values.
+            Value:
+              #1
+              #2
+              #3
+            Page 1. Enter > for the next page, < for the previous page, /text to show only the values starting with text.
+            Enter your choice: 999999
+        '''.stripAll()
+        value == 999999L
+        formatted == 6
+    }
+
+    def "should render the prompt only once per configuration"() {
+        given:
+        int formatted = 0
+        def reader = textIO.newStringInputReader()
+                .withPossibleValues("Jack", "Emma", "Jane")
+                .withValueFormatter({ formatted++; it.toUpperCase() })
+
+        when:
+        terminal.inputs.addAll(["4", "1", "2"])
+        def first = reader.read("Player")
+        def second = reader.read("Player")
+
+        then:
+        first == "Jack"
+        second == "Emma"
+        formatted == 3
+
+        when:
+        terminal.inputs.add("")
+        def third = reader.withDefaultValue("Jane").read("Player")
+
+        then:
+        third == "Jane"
+        formatted == 6
+        terminal.output.endsWith('''
+            Player:
+              1: JACK
+              2: EMMA
+            * 3: JANE
+            Enter your choice:
+        '''.stripAll())
+    }
+
+    def "should run asynchronous reads on the executor of the TextIO"() {
+        given:
+        def executedTasks = 0
+        textIO.executor = { Runnable task -> executedTasks++; task.run() } as Executor
+        terminal.inputs.addAll(["abc", "42"])
+
+        when:
+        def future = textIO.newIntInputReader().readAsync("Answer")
+
+        then:
+        future.get() == 42
+        executedTasks == 1
+        terminal.readCalls == 2
+    }
 }
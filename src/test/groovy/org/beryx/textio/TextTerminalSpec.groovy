@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+@Unroll
+class TextTerminalSpec extends Specification {
+    static class RecordingTerminal implements TextTerminal {
+        final List<String> calls = []
+
+        @Override
+        String read(boolean masking) {
+            throw new UnsupportedOperationException()
+        }
+
+        @Override
+        void rawPrint(String message) {
+            calls << "raw:$message".toString()
+        }
+
+        @Override
+        void println() {
+            calls << 'nl'
+        }
+    }
+
+    static List<String> expectedCalls(List<String> messages) {
+        def lines = messages.collectMany { it.split('\\R', -1) as List }
+        lines.collect { "raw:$it".toString() }.collectMany { [it, 'nl'] }.dropRight(1)
+    }
+
+    def terminal = new RecordingTerminal()
+
+    def "should split #text.inspect() like the \\R regex"() {
+        when:
+        terminal.print(text)
+
+        then:
+        terminal.calls == expectedCalls([text])
+
+        where:
+        text << ['', 'abc', 'a\nb', 'a\r\nb', 'a\n\rb', 'a\r\rb', '\n', 'x y\u0085z\u000Bw\fv', 'end\r\n', '\r']
+    }
+
+    def "should print a list of messages containing line separators"() {
+        when:
+        terminal.print(messages)
+
+        then:
+        terminal.calls == expectedCalls(messages)
+
+        where:
+        messages << [[], ['abc'], ['a', 'b'], ['a\nb', 'c\r\nd', ''], ['', '\n']]
+    }
+
+    def "should print a region of a char array"() {
+        given:
+        char[] chars = 'xxfirst\nsecond\r\nthirdxx'.toCharArray()
+
+        when:
+        terminal.print(chars, 2, chars.length - 4)
+
+        then:
+        terminal.calls == ['raw:first', 'nl', 'raw:second', 'nl', 'raw:third']
+    }
+
+    def "should print a CharSequence followed by a line separator"() {
+        when:
+        terminal.println(new StringBuilder('one\ntwo'))
+
+        then:
+        terminal.calls == ['raw:one', 'nl', 'raw:two', 'nl']
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio
+
+import org.beryx.textio.ReadTimeoutException
+import org.beryx.textio.TextIO
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.nio.ByteBuffer
+import java.nio.channels.Pipe
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.time.Duration
+
+@Timeout(30)
+class AttachableTextTerminalSpec extends Specification {
+    def terminal = new AttachableTextTerminal(StandardCharsets.UTF_8, 32)
+    def toTerminal = Pipe.open()
+    def fromTerminal = Pipe.open()
+
+    private Thread attach() {
+        def thread = Thread.start { terminal.serve(toTerminal.source(), fromTerminal.sink()) }
+        while(!terminal.attached) Thread.sleep(1)
+        thread
+    }
+
+    private void send(String text) {
+        def bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8))
+        while(bytes.hasRemaining()) toTerminal.sink().write(bytes)
+    }
+
+    private String receive(int length) {
+        def buffer = ByteBuffer.allocate(length)
+        while(buffer.hasRemaining()) fromTerminal.source().read(buffer)
+        new String(buffer.array(), StandardCharsets.UTF_8)
+    }
+
+    def "should keep the most recent output while no client is attached"() {
+        when:
+        (1..10).each { terminal.println("line $it") }
+        attach()
+        def nl = System.lineSeparator()
+        def expected = (1..10).collect { "line $it$nl" }.join()[-32..-1]
+
+        then:
+        receive(32) == expected
+    }
+
+    def "should wait for a client to attach and answer"() {
+        given:
+        String answer = null
+        def reader = Thread.start { answer = new TextIO(terminal).newStringInputReader().read("Confirm") }
+        Thread.sleep(100)
+
+        when:
+        attach()
+        def prompt = receive("Confirm: ".length())
+        send("yes\n")
+        reader.join()
+
+        then:
+        prompt == "Confirm: "
+        answer == "yes"
+    }
+
+    def "should detach the client at the end of its input"() {
+        given:
+        def server = attach()
+
+        when:
+        toTerminal.sink().close()
+        server.join()
+
+        then:
+        !terminal.attached
+    }
+
+    def "should ignore a cancellation that arrives when no read is pending"() {
+        given:
+        terminal.cancelRead()
+
+        when:
+        terminal.read(false, Duration.ofMillis(100))
+
+        then:
+        thrown(ReadTimeoutException)
+    }
+
+    def "should time out a read while no client is attached"() {
+        when:
+        terminal.read(false, Duration.ofMillis(100))
+
+        then:
+        thrown(ReadTimeoutException)
+    }
+
+    @Requires({ UnixSocketTextTerminal.supported })
+    def "should attach to a Unix domain socket"() {
+        given:
+        def socketPath = Files.createTempDirectory("textio").resolve("terminal.sock")
+        def unixTerminal = new UnixSocketTextTerminal(socketPath)
+        String answer = null
+        def reader = Thread.start { answer = new TextIO(unixTerminal).newStringInputReader().read("Confirm") }
+        def input = new PipedOutputStream()
+        def clientInput = new PipedInputStream(input)
+        def clientOutput = new ByteArrayOutputStream()
+        def client = Thread.start { new UnixSocketTextTerminalClient(socketPath).run(clientInput, new PrintStream(clientOutput)) }
+
+        when:
+        while(!clientOutput.toString().contains("Confirm: ")) Thread.sleep(1)
+        input.write("yes\n".bytes)
+        input.flush()
+        reader.join()
+        input.close()
+        client.join()
+        unixTerminal.close()
+
+        then:
+        answer == "yes"
+        !Files.exists(socketPath)
+    }
+
+    @Requires({ UnixSocketTextTerminal.supported })
+    def "should replace a stale socket, but neither a live socket nor a file that is not a socket"() {
+        given:
+        def dir = Files.createTempDirectory("textio")
+        def socketPath = dir.resolve("terminal.sock")
+        def filePath = Files.write(dir.resolve("terminal.txt"), "data".bytes)
+        def liveTerminal = new UnixSocketTextTerminal(socketPath)
+        UnixSocketTextTerminal replacingTerminal = null
+
+        when:
+        new UnixSocketTextTerminal(socketPath)
+
+        then:
+        thrown(BindException)
+
+        when:
+        new UnixSocketTextTerminal(filePath)
+
+        then:
+        thrown(IOException)
+        Files.readAllBytes(filePath) == "data".bytes
+
+        when: "the socket file is left behind without a listener"
+        UnixDomainSockets.openServerChannel(dir.resolve("stale.sock")).close()
+        replacingTerminal = new UnixSocketTextTerminal(dir.resolve("stale.sock"))
+
+        then:
+        replacingTerminal.socketPath == dir.resolve("stale.sock")
+
+        cleanup:
+        liveTerminal?.close()
+        replacingTerminal?.close()
+    }
+}
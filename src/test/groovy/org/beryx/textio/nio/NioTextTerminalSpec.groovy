@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio
+
+import org.beryx.textio.TextIO
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.WritableByteChannel
+import java.nio.charset.StandardCharsets
+
+class NioTextTerminalSpec extends Specification {
+    static class CountingChannel implements WritableByteChannel {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        int writeCalls = 0
+
+        @Override
+        int write(ByteBuffer src) {
+            writeCalls++
+            int count = src.remaining()
+            byte[] b = new byte[count]
+            src.get(b)
+            bytes.write(b)
+            count
+        }
+
+        @Override
+        boolean isOpen() { true }
+
+        @Override
+        void close() {}
+
+        String getText() {
+            new String(bytes.toByteArray(), StandardCharsets.UTF_8)
+        }
+    }
+
+    def out = new CountingChannel()
+
+    NioTextTerminal newTerminal(String input, int bufferSize) {
+        def inChannel = Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)))
+        new NioTextTerminal(inChannel, out, StandardCharsets.UTF_8, bufferSize, true)
+    }
+
+    def "should coalesce the output until the next read"() {
+        given:
+        def terminal = newTerminal("42\n", 1024)
+
+        when:
+        (1..20).each { terminal.println("line $it") }
+
+        then:
+        out.writeCalls == 0
+
+        when:
+        def input = terminal.read(false)
+
+        then:
+        input == '42'
+        out.writeCalls == 1
+        out.text.readLines() == (1..20).collect { "line $it".toString() }
+    }
+
+    def "should flush when the buffer is full"() {
+        given:
+        def terminal = newTerminal("", 16)
+
+        when:
+        terminal.print('0123456789' * 10)
+        terminal.dispose()
+
+        then:
+        out.writeCalls > 1
+        out.text == '0123456789' * 10
+    }
+
+    def "should encode multibyte characters split across buffer boundaries"() {
+        given:
+        def terminal = newTerminal("", 5)
+        def text = 'Größe: 10 \u20ac, Maß: 3 \ud83d\ude00'
+
+        when:
+        terminal.print(text)
+        terminal.dispose()
+
+        then:
+        out.text == text
+    }
+
+    def "should read values through a TextIO"() {
+        given:
+        def terminal = newTerminal("abc\r\n17\n", 256)
+
+        when:
+        int val = new TextIO(terminal).newIntInputReader().read("Value")
+
+        then:
+        val == 17
+        out.text.readLines() == ['Value: Invalid value.', 'Expected an integer value.', '', 'Value: ']
+    }
+}
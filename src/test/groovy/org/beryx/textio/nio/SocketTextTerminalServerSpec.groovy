@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.nio
+
+import org.beryx.textio.ReadTimeoutException
+import org.beryx.textio.TextIO
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.function.Consumer
+
+@Timeout(60)
+class SocketTextTerminalServerSpec extends Specification {
+    SocketTextTerminalServer server
+
+    def cleanup() {
+        server?.close()
+    }
+
+    private SocketTextTerminalServer startServer(Consumer<TextIO> handler) {
+        server = new SocketTextTerminalServer(new InetSocketAddress(InetAddress.loopbackAddress, 0), handler).start()
+        server
+    }
+
+    private SocketTextTerminalClient connect() {
+        new SocketTextTerminalClient(server.localAddress)
+    }
+
+    def "should run a session over a socket"() {
+        given:
+        startServer { TextIO textIO ->
+            String name = textIO.newStringInputReader().read("Name")
+            int age = textIO.newIntInputReader().withMinVal(0).read("Age")
+            textIO.textTerminal.println("Hello, $name ($age)!")
+        }
+        def client = connect()
+
+        when:
+        client.readUntil("Name: ")
+        client.sendLine("Alice")
+        client.readUntil("Age: ")
+        client.sendLine("-3")
+        def retry = client.readUntil("Age: ")
+        client.sendLine("30")
+        def greeting = client.readAll()
+
+        then:
+        retry.contains("Expected an integer value greater than or equal to 0.")
+        greeting == "Hello, Alice (30)!\r\n"
+
+        cleanup:
+        client?.close()
+    }
+
+    def "should serve many concurrent sessions, each with its own TextIO"() {
+        given:
+        startServer { TextIO textIO ->
+            int value = textIO.newIntInputReader().read("Value")
+            textIO.textTerminal.println("Double: ${2 * value}")
+        }
+        def clients = (1..200).collect { connect() }
+
+        when:
+        clients.eachWithIndex { client, i -> client.readUntil("Value: ") }
+        clients.eachWithIndex { client, i -> client.sendLine("$i") }
+        def answers = clients.collect { it.readAll() }
+
+        then:
+        answers == (0..199).collect { "Double: ${2 * it}\r\n".toString() }
+
+        cleanup:
+        clients*.close()
+    }
+
+    def "should end the pending read when the client disconnects"() {
+        given:
+        def readFailure = new CountDownLatch(1)
+        startServer { TextIO textIO ->
+            try {
+                textIO.newStringInputReader().read("Name")
+            } catch (NoSuchElementException e) {
+                readFailure.countDown()
+                throw e
+            }
+        }
+        def client = connect()
+        client.readUntil("Name: ")
+
+        when:
+        client.close()
+
+        then:
+        readFailure.await(10, TimeUnit.SECONDS)
+    }
+
+    def "should time out a read"() {
+        given:
+        startServer { TextIO textIO ->
+            try {
+                textIO.textTerminal.read(false, Duration.ofMillis(100))
+            } catch (ReadTimeoutException e) {
+                textIO.textTerminal.println("timeout")
+            }
+        }
+        def client = connect()
+
+        expect:
+        client.readAll() == "timeout\r\n"
+
+        cleanup:
+        client?.close()
+    }
+
+    def "should keep serving after connections that are reset immediately"() {
+        given:
+        startServer { TextIO textIO ->
+            textIO.textTerminal.println("Hello " + textIO.newStringInputReader().read("Name"))
+        }
+        20.times {
+            def socket = new Socket()
+            socket.setSoLinger(true, 0)
+            socket.connect(server.localAddress)
+            socket.close()
+        }
+
+        when:
+        def client = connect()
+        client.readUntil("Name: ")
+        client.sendLine("Bob")
+        def greeting = client.readAll()
+
+        then:
+        greeting == "Hello Bob\r\n"
+
+        cleanup:
+        client?.close()
+    }
+}
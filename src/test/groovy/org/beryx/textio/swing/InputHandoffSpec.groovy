@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing
+
+import org.beryx.textio.ReadCancelledException
+import org.beryx.textio.ReadTimeoutException
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class InputHandoffSpec extends Specification {
+    def handoff = new InputHandoff()
+
+    /** Starts a virtual thread, if the runtime supports them. Otherwise, it starts a platform thread. */
+    static Thread startThread(Runnable task) {
+        try {
+            Class<?> threadClass = Thread
+            def builder = threadClass.getMethod('ofVirtual').invoke(null)
+            return Class.forName('java.lang.Thread$Builder').getMethod('start', Runnable).invoke(builder, task) as Thread
+        } catch (NoSuchMethodException e) {
+            def thread = new Thread(task)
+            thread.daemon = true
+            thread.start()
+            return thread
+        }
+    }
+
+    @Timeout(60)
+    def "should deliver each input to exactly one of many concurrent readers"() {
+        given:
+        int readerCount = 500
+        def results = new ConcurrentLinkedQueue<String>()
+        def errors = new ConcurrentLinkedQueue<Throwable>()
+        def done = new CountDownLatch(readerCount)
+
+        when:
+        readerCount.times {
+            startThread {
+                try {
+                    results << handoff.read(false, null)
+                } catch (Throwable t) {
+                    errors << t
+                } finally {
+                    done.countDown()
+                }
+            }
+        }
+        for(int i = 0; i < readerCount; i++) {
+            while(!handoff.complete("input-$i".toString())) Thread.yield()
+        }
+
+        then:
+        done.await(30, TimeUnit.SECONDS)
+        errors.empty
+        results.size() == readerCount
+        results as Set == (0..<readerCount).collect { "input-$it".toString() } as Set
+        !handoff.waiting
+        !handoff.complete("extra")
+    }
+
+    @Timeout(30)
+    def "should throw InterruptedException when the reader is interrupted"() {
+        given:
+        def error = null
+        def thread = startThread {
+            try {
+                handoff.read(true, null)
+            } catch (InterruptedException e) {
+                error = e
+            }
+        }
+        while(!handoff.waiting) Thread.yield()
+
+        expect:
+        handoff.masking
+
+        when:
+        thread.interrupt()
+        thread.join(10000)
+
+        then:
+        error instanceof InterruptedException
+        !handoff.waiting
+        !handoff.masking
+        !handoff.complete("too late")
+    }
+
+    def "should run the start action while the read is active"() {
+        given:
+        boolean waitingAtStart = false
+        def thread = startThread { handoff.read(false, { waitingAtStart = handoff.waiting }) }
+        while(!handoff.complete("done")) Thread.yield()
+        thread.join(10000)
+
+        expect:
+        waitingAtStart
+    }
+
+    @Timeout(30)
+    def "should time out or be cancelled while waiting for input"() {
+        when:
+        handoff.read(false, null, 50_000_000L)
+
+        then:
+        thrown(ReadTimeoutException)
+        !handoff.waiting
+
+        when:
+        startThread {
+            while(!handoff.waiting) Thread.yield()
+            handoff.cancel()
+        }
+        handoff.read(false, null, -1)
+
+        then:
+        thrown(ReadCancelledException)
+        !handoff.waiting
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing
+
+import spock.lang.Specification
+
+class InputLineSpec extends Specification {
+    def input = new InputLine()
+
+    def "should insert and delete at the caret position"() {
+        when:
+        input.insert('helo')
+        input.moveCaretTo(3)
+        input.insert('l')
+
+        then:
+        input.text == 'hello'
+        input.caret == 4
+
+        when:
+        input.deleteBackward()
+        input.deleteForward()
+
+        then:
+        input.text == 'hel'
+        input.caret == 3
+
+        when:
+        input.moveCaretTo(0)
+        input.deleteBackward()
+        input.deleteForward()
+
+        then:
+        input.text == 'el'
+        input.caret == 0
+    }
+
+    def "should keep the caret within the input"() {
+        given:
+        input.insert('abc')
+
+        when:
+        input.moveCaretTo(-1)
+
+        then:
+        input.caret == 0
+
+        when:
+        input.moveCaretTo(10)
+        input.deleteForward()
+
+        then:
+        input.caret == 3
+        input.text == 'abc'
+
+        when:
+        input.clear()
+
+        then:
+        input.caret == 0
+        input.length() == 0
+    }
+}
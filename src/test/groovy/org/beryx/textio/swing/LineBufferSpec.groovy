@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing
+
+import spock.lang.Specification
+
+import javax.swing.text.Segment
+
+class LineBufferSpec extends Specification {
+    def buffer = new LineBuffer()
+
+    List<String> getLines() {
+        def segment = new Segment()
+        (0..<buffer.lineCount).collect { buffer.getLine(it, segment); segment.toString() }
+    }
+
+    def "should split the appended text into lines"() {
+        when:
+        buffer.append('first\nsec', 0, 9)
+        buffer.append('xxond\n\nlast', 2, 11)
+
+        then:
+        lines == ['first', 'second', '', 'last']
+        buffer.maxLineLength == 6
+        buffer.lastLineLength == 4
+    }
+
+    def "should start with an empty line"() {
+        expect:
+        lines == ['']
+        buffer.maxLineLength == 0
+    }
+
+    def "should grow beyond the initial capacity"() {
+        when:
+        (1..5000).each { buffer.append("line $it\n", 0, "line $it\n".length()) }
+
+        then:
+        buffer.lineCount == 5001
+        lines[4999] == 'line 5000'
+        lines[5000] == ''
+    }
+
+    def "should keep only the last lines after trimming"() {
+        given:
+        (1..100).each { buffer.append("${'x' * (it % 7)}$it\n", 0, "${'x' * (it % 7)}$it\n".length()) }
+
+        expect:
+        buffer.trim(95) == 0
+        buffer.lineCount == 101
+
+        when:
+        int removed = buffer.trim(10)
+
+        then:
+        removed == 91
+        buffer.lineCount == 10
+        lines == (92..100).collect { "${'x' * (it % 7)}$it".toString() } + ['']
+        buffer.maxLineLength == 8
+    }
+}
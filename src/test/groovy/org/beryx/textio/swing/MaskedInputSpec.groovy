@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+@Unroll
+class MaskedInputSpec extends Specification {
+    def "should apply the edits #edits"() {
+        given:
+        def input = new MaskedInput()
+
+        when:
+        edits.each { input.replace(it[0], it[1], it[2]) }
+
+        then:
+        input.text == expected
+        input.length() == expected.length()
+
+        where:
+        edits                                                   | expected
+        [[0, 0, 'secret']]                                      | 'secret'
+        [[0, 0, 'secret'], [6, 0, '42']]                        | 'secret42'
+        [[0, 0, 'secret'], [0, 0, 'my']]                        | 'mysecret'
+        [[0, 0, 'secret'], [5, 1, null]]                        | 'secre'
+        [[0, 0, 'secret'], [1, 4, 'XY']]                        | 'sXYt'
+        [[0, 0, 'a' * 100], [50, 50, 'b']]                      | 'a' * 50 + 'b'
+        [[0, 0, 'x']] * 40                                      | 'x' * 40
+    }
+
+    def "should reject an edit outside the input"() {
+        given:
+        def input = new MaskedInput()
+        input.replace(0, 0, 'abc')
+
+        when:
+        input.replace(2, 2, null)
+
+        then:
+        thrown(IllegalArgumentException)
+        input.text == 'abc'
+    }
+
+    def "should clear the input"() {
+        given:
+        def input = new MaskedInput()
+        input.replace(0, 0, 'password')
+
+        when:
+        input.clear()
+
+        then:
+        input.text == ''
+        MaskedInput.mask('pass') == '****'
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing
+
+import org.beryx.textio.ReadInterruptedException
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.awt.GraphicsEnvironment
+import java.awt.HeadlessException
+
+@Timeout(30)
+class SwingTextTerminalSpec extends Specification {
+    def "should throw a ReadInterruptedException if the reader is interrupted before the read is prepared"() {
+        given:
+        boolean taskRun = false
+        Throwable error = null
+        boolean interruptRestored = false
+
+        when:
+        Thread.start {
+            Thread.currentThread().interrupt()
+            try {
+                SwingTextTerminal.runOnEventDispatchThreadBeforeRead { taskRun = true }
+            } catch (Throwable t) {
+                error = t
+            }
+            interruptRestored = Thread.currentThread().interrupted
+        }.join()
+
+        then:
+        error instanceof ReadInterruptedException
+        !taskRun
+        interruptRestored
+    }
+
+    @Requires({ GraphicsEnvironment.headless })
+    def "should report a failed asynchronous initialization to the waiting threads"() {
+        given:
+        def terminal = new SwingTextTerminal(true)
+
+        when:
+        terminal.getFrame()
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.cause instanceof HeadlessException
+
+        when:
+        terminal.read(false)
+
+        then:
+        e = thrown(IllegalStateException)
+        e.cause instanceof HeadlessException
+    }
+
+    @Requires({ !GraphicsEnvironment.headless })
+    def "should throw a ReadInterruptedException if a pre-interrupted thread reads from the terminal"() {
+        given:
+        def terminal = new SwingTextTerminal()
+        Throwable error = null
+
+        when:
+        Thread.start {
+            Thread.currentThread().interrupt()
+            try {
+                terminal.read(false)
+            } catch (Throwable t) {
+                error = t
+            }
+        }.join()
+
+        then:
+        error instanceof ReadInterruptedException
+
+        cleanup:
+        terminal?.dispose()
+    }
+}
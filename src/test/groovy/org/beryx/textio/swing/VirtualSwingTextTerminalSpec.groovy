@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.swing
+
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import javax.swing.*
+import javax.swing.text.Segment
+import java.awt.GraphicsEnvironment
+import java.awt.event.KeyEvent
+
+@Timeout(30)
+@Requires({ !GraphicsEnvironment.headless })
+class VirtualSwingTextTerminalSpec extends Specification {
+    def terminal = new VirtualSwingTextTerminal()
+
+    def cleanup() {
+        terminal.dispose()
+    }
+
+    private VirtualTextView getView() {
+        (VirtualTextView)((JScrollPane)terminal.frame.contentPane.getComponent(0)).viewport.view
+    }
+
+    private void awaitRead() {
+        while(!terminal.handoff.isWaiting()) Thread.sleep(10)
+    }
+
+    private void type(String text) {
+        text.each { ch -> key(KeyEvent.KEY_TYPED, KeyEvent.VK_UNDEFINED, ch as char) }
+    }
+
+    private void press(int keyCode) {
+        key(KeyEvent.KEY_PRESSED, keyCode, KeyEvent.CHAR_UNDEFINED)
+    }
+
+    private void key(int id, int keyCode, char keyChar) {
+        SwingUtilities.invokeAndWait {
+            view.dispatchEvent(new KeyEvent(view, id, System.currentTimeMillis(), 0, keyCode, keyChar))
+        }
+    }
+
+    private String readWhile(Closure edits) {
+        String result = null
+        def reader = new Thread({ result = terminal.read(false) } as Runnable)
+        reader.start()
+        awaitRead()
+        edits()
+        reader.join()
+        result
+    }
+
+    def "should edit the input at the caret position"() {
+        when:
+        def result = readWhile {
+            type('helo')
+            press(KeyEvent.VK_LEFT)
+            type('l')
+            press(KeyEvent.VK_END)
+            type('!')
+            press(KeyEvent.VK_HOME)
+            press(KeyEvent.VK_DELETE)
+            press(KeyEvent.VK_RIGHT)
+            type('\b')
+            type('\n')
+        }
+
+        then:
+        result == 'llo!'
+    }
+
+    def "should keep the printed text and the completed input in the line buffer"() {
+        when:
+        terminal.println('Name:')
+        def result = readWhile {
+            type('Jane\n')
+        }
+        terminal.println('Done')
+        SwingUtilities.invokeAndWait { terminal.flushOutput() }
+
+        then:
+        result == 'Jane'
+        def segment = new Segment()
+        (0..<terminal.lines.lineCount).collect { terminal.lines.getLine(it, segment); segment.toString() } == ['Name:', 'Jane', 'Done', '']
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.system
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.channels.Channels
+import java.nio.charset.StandardCharsets
+
+@Unroll
+class ChannelLineReaderSpec extends Specification {
+    static List<String> readAll(String text, int bufferSize) {
+        def channel = Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)))
+        def reader = new ChannelLineReader(channel, StandardCharsets.UTF_8, bufferSize)
+        def lines = []
+        String line
+        while((line = reader.readLine()) != null) {
+            lines << line
+        }
+        assert reader.endOfInput
+        assert reader.readLine() == null
+        lines
+    }
+
+    def "should read the lines of #text.inspect() using a buffer of #bufferSize bytes"() {
+        expect:
+        readAll(text, bufferSize) == lines
+
+        where:
+        text                        | bufferSize | lines
+        ''                          | 16         | []
+        'abc'                       | 16         | ['abc']
+        'abc\n'                     | 16         | ['abc']
+        'abc\r\ndef\r\n'            | 16         | ['abc', 'def']
+        'abc\r\ndef'                | 16         | ['abc', 'def']
+        'a\n\nb'                    | 16         | ['a', '', 'b']
+        'a\rb\r\r\nc'               | 16         | ['a', 'b', '', 'c']
+        '\n'                        | 16         | ['']
+        'x' * 100 + '\r\n' + 'y'    | 16         | ['x' * 100, 'y']
+        'x' * 15 + '\r\n' + 'y'     | 16         | ['x' * 15, 'y']
+        'äöü€\n' * 10               | 16         | ['äöü€'] * 10
+        '\ud83d\ude00' * 20           | 17         | ['\ud83d\ude00' * 20]
+    }
+
+    def "should read a large number of lines"() {
+        given:
+        def expected = (1..10000).collect { "line $it".toString() }
+
+        expect:
+        readAll(expected.join('\r\n'), 4096) == expected
+    }
+
+    def "should detect if a complete line is buffered"() {
+        given:
+        def channel = Channels.newChannel(new ByteArrayInputStream('first\r\nsecond'.getBytes(StandardCharsets.UTF_8)))
+        def reader = new ChannelLineReader(channel, StandardCharsets.UTF_8, 16)
+
+        expect:
+        !reader.hasBufferedLine()
+        reader.readLine() == 'first'
+        !reader.hasBufferedLine()
+        reader.readLine() == 'second'
+        !reader.hasBufferedLine()
+    }
+}
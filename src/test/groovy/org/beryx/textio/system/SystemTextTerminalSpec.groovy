@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.beryx.textio.system
+
+import org.beryx.textio.ReadCancelledException
+import org.beryx.textio.ReadTimeoutException
+import org.beryx.textio.ReadToken
+import org.beryx.textio.TextIO
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.nio.channels.Channels
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+@Timeout(30)
+class SystemTextTerminalSpec extends Specification {
+    def input = new PipedInputStream()
+    def out = new PipedOutputStream(input)
+    def terminal = new SystemTextTerminal(Channels.newChannel(input), input)
+
+    def "should time out if no input is available"() {
+        when:
+        terminal.read(false, Duration.ofMillis(100))
+
+        then:
+        thrown(ReadTimeoutException)
+    }
+
+    def "should return the input provided within the timeout"() {
+        given:
+        Thread.start {
+            sleep(50)
+            out.write('first\nsecond\n'.bytes)
+            out.flush()
+        }
+
+        expect:
+        terminal.read(false, Duration.ofSeconds(10)) == 'first'
+        terminal.read(false, Duration.ofMillis(1)) == 'second'
+    }
+
+    def "should cancel a pending read with timeout"() {
+        given:
+        Thread.start {
+            sleep(50)
+            terminal.cancelRead()
+        }
+
+        when:
+        terminal.read(false, Duration.ofSeconds(10))
+
+        then:
+        thrown(ReadCancelledException)
+    }
+
+    def "should ignore a cancellation that arrives when no read is pending"() {
+        given:
+        terminal.cancelRead()
+        out.write("John\n".bytes)
+        out.flush()
+
+        expect:
+        terminal.read(false, Duration.ofSeconds(10)) == "John"
+    }
+
+    def "should cancel only the reads with the cancelled token"() {
+        given:
+        def token = new ReadToken()
+        token.cancel()
+        out.write("John\n".bytes)
+        out.flush()
+
+        when:
+        terminal.read(false, Duration.ofSeconds(10), token)
+
+        then:
+        thrown(ReadCancelledException)
+        terminal.read(false, Duration.ofSeconds(10), new ReadToken()) == "John"
+    }
+
+    def "should detect the end of the input in reads with timeout"() {
+        given:
+        def input = new ByteArrayInputStream("John\n".bytes)
+        def exhaustedTerminal = new SystemTextTerminal(Channels.newChannel(input), input)
+
+        expect:
+        exhaustedTerminal.read(false, Duration.ofSeconds(10)) == "John"
+
+        when:
+        exhaustedTerminal.read(false, Duration.ofSeconds(10))
+
+        then:
+        thrown(NoSuchElementException)
+    }
+
+    def "should return the default value after the timeout"() {
+        given:
+        def textIO = new TextIO(terminal)
+
+        expect:
+        textIO.newIntInputReader().withDefaultValue(42).read(Duration.ofMillis(50), "Value") == 42
+
+        when:
+        textIO.newIntInputReader().read(Duration.ofMillis(50), "Value")
+
+        then:
+        thrown(ReadTimeoutException)
+    }
+
+    def "should complete an asynchronous read when the input arrives"() {
+        given:
+        def future = new TextIO(terminal).newIntInputReader().readAsync("Answer")
+
+        when:
+        out.write("42\n".bytes)
+        out.flush()
+
+        then:
+        future.get(10, TimeUnit.SECONDS) == 42
+    }
+
+    def "should complete an asynchronous read exceptionally at the end of the input"() {
+        given:
+        def input = new ByteArrayInputStream(new byte[0])
+        def exhaustedTerminal = new SystemTextTerminal(Channels.newChannel(input), input)
+        def future = new TextIO(exhaustedTerminal).newIntInputReader().readAsync("Answer")
+
+        when:
+        future.get(10, TimeUnit.SECONDS)
+
+        then:
+        def e = thrown(ExecutionException)
+        e.cause instanceof NoSuchElementException
+    }
+
+    def "should cancel the terminal read when the asynchronous read is cancelled"() {
+        given:
+        def started = new CountDownLatch(1)
+        def textIO = new TextIO(terminal)
+        textIO.executor = { Runnable task -> Thread.start { started.countDown(); task.run() } } as Executor
+        def future = textIO.newStringInputReader().readAsync(["Name"], Duration.ofSeconds(20))
+        started.await()
+        Thread.sleep(200)
+
+        when:
+        future.cancel(true)
+        out.write("John\n".bytes)
+        out.flush()
+
+        then:
+        future.cancelled
+        terminal.read(false) == "John"
+    }
+
+    def "should not consume the next line after cancelling an asynchronous read without timeout"() {
+        given:
+        Thread worker = null
+        def textIO = new TextIO(terminal)
+        textIO.executor = { Runnable task -> worker = Thread.start { task.run() } } as Executor
+        def future = textIO.newStringInputReader().readAsync("Name")
+        Thread.sleep(200)
+
+        when:
+        future.cancel(true)
+        worker.join(10000)
+        out.write("John\n".bytes)
+        out.flush()
+
+        then:
+        future.cancelled
+        !worker.alive
+        terminal.read(false) == "John"
+    }
+}